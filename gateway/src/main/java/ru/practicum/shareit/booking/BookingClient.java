@@ -4,13 +4,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookingClientRequestDto;
 import ru.practicum.shareit.booking.dto.BookingClientState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerCallGuards;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -19,12 +20,13 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ServerCallGuards guards) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .build(),
+                guards.forClient("bookings")
         );
     }
 
@@ -32,6 +34,10 @@ public class BookingClient extends BaseClient {
         return post("", userId, bookingClientRequestDto);
     }
 
+    public ResponseEntity<Object> createBookings(long userId, List<BookingClientRequestDto> bookings) {
+        return post("/batch", userId, bookings);
+    }
+
     public ResponseEntity<Object> updateBooking(Long userId, long bookingId, Boolean approved) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved);
@@ -59,4 +65,22 @@ public class BookingClient extends BaseClient {
                 "size", size);
         return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
     }
+
+    public ResponseEntity<Object> getBookingsForCurrentUserAfter(long userId, BookingClientState state,
+                                                                 String after, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "after", after,
+                "size", size);
+        return get("?state={state}&after={after}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getBookingsForAllItemsAfter(long userId, BookingClientState state,
+                                                              String after, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "after", after,
+                "size", size);
+        return get("/owner?state={state}&after={after}&size={size}", userId, parameters);
+    }
 }
@@ -10,9 +10,12 @@ import ru.practicum.shareit.booking.dto.BookingClientState;
 import ru.practicum.shareit.exception.BookingClientValidationException;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Контроллер бронирования
@@ -24,6 +27,11 @@ import java.time.LocalDateTime;
 @RequiredArgsConstructor
 public class BookingClientController {
 
+    /**
+     * Наибольшее число бронирований в одном пакете
+     */
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final BookingClient bookingService;
 
     @PostMapping
@@ -34,6 +42,17 @@ public class BookingClientController {
         return bookingService.createBooking(userId, bookingClientRequestDto);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> createBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                 @RequestBody @Size(min = 1, max = MAX_BATCH_SIZE)
+                                                 List<@Valid @NotNull BookingClientRequestDto> bookings) {
+        log.info("Create {} bookings with user id {}", bookings.size(), userId);
+        for (BookingClientRequestDto booking : bookings) {
+            validationDate(booking.getStart(), booking.getEnd());
+        }
+        return bookingService.createBookings(userId, bookings);
+    }
+
     @PatchMapping("/{bookingId}")
     public ResponseEntity<Object> updateBooking(@RequestHeader("X-Sharer-User-Id") long userId,
                                                 @PathVariable long bookingId,
@@ -52,7 +71,11 @@ public class BookingClientController {
     public ResponseEntity<Object> getBookingsForCurrentUser(@PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
                                                             @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
                                                             @RequestHeader("X-Sharer-User-Id") long userId,
-                                                            @RequestParam(name = "state", defaultValue = "ALL") BookingClientState state) {
+                                                            @RequestParam(name = "state", defaultValue = "ALL") BookingClientState state,
+                                                            @RequestParam(name = "after", required = false) String after) {
+        if (after != null) {
+            return bookingService.getBookingsForCurrentUserAfter(userId, state, after, size);
+        }
         return bookingService.getBookingsForCurrentUser(userId, state, from, size);
     }
 
@@ -60,8 +83,11 @@ public class BookingClientController {
     public ResponseEntity<Object> getBookingsForAllItems(@PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
                                                          @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
                                                          @RequestHeader("X-Sharer-User-Id") long userId,
-                                                         @RequestParam(name = "state", defaultValue = "ALL") BookingClientState state) {
-
+                                                         @RequestParam(name = "state", defaultValue = "ALL") BookingClientState state,
+                                                         @RequestParam(name = "after", required = false) String after) {
+        if (after != null) {
+            return bookingService.getBookingsForAllItemsAfter(userId, state, after, size);
+        }
         return bookingService.getBookingsForAllItems(userId, state, from, size);
     }
 
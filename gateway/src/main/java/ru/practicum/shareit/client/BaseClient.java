@@ -6,14 +6,22 @@ import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 public class BaseClient {
 
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "transfer-encoding",
+            "content-length", "te", "trailer", "upgrade", "proxy-authenticate", "proxy-authorization");
+
     protected final RestTemplate rest;
 
-    public BaseClient(RestTemplate rest) {
+    private final ServerCallGuard guard;
+
+    public BaseClient(RestTemplate rest, ServerCallGuard guard) {
         this.rest = rest;
+        this.guard = guard;
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -76,18 +84,28 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * Ответ сервера передаётся клиенту как есть: тело в байтах без разбора и повторной сериализации JSON.
+     * Вызов проходит через {@link ServerCallGuard} клиента
+     */
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        return guard.call(() -> sendRequest(method, path, userId, parameters, body));
+    }
+
+    private <T> ResponseEntity<Object> sendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
-        ResponseEntity<Object> shareitServerResponse;
+        ResponseEntity<byte[]> shareitServerResponse;
         try {
             if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
             } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
             }
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return ResponseEntity.status(e.getStatusCode())
+                    .headers(passThroughHeaders(e.getResponseHeaders()))
+                    .body(e.getResponseBodyAsByteArray());
         }
         return prepareGatewayResponse(shareitServerResponse);
     }
@@ -102,12 +120,9 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<byte[]> response) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode())
+                .headers(passThroughHeaders(response.getHeaders()));
 
         if (response.hasBody()) {
             return responseBuilder.body(response.getBody());
@@ -115,4 +130,19 @@ public class BaseClient {
 
         return responseBuilder.build();
     }
+
+    /**
+     * Заголовки ответа сервера без заголовков соединения, их шлюз выставляет сам
+     */
+    private static HttpHeaders passThroughHeaders(@Nullable HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders != null) {
+            serverHeaders.forEach((name, values) -> {
+                if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    headers.addAll(name, values);
+                }
+            });
+        }
+        return headers;
+    }
 }
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Ответ сервера, прочитанный в память. Неизменяемый: тело каждый раз отдаётся новым потоком,
+ * поэтому один экземпляр можно вернуть нескольким запросам.
+ */
+final class BufferedResponse implements ClientHttpResponse {
+
+    private final int status;
+
+    private final String statusText;
+
+    private final HttpHeaders headers;
+
+    private final byte[] body;
+
+    BufferedResponse(int status, String statusText, HttpHeaders headers, byte[] body) {
+        this.status = status;
+        this.statusText = statusText;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+    }
+
+    /**
+     * Читает ответ целиком и закрывает его
+     */
+    static BufferedResponse of(ClientHttpResponse response) throws IOException {
+        try (response) {
+            return new BufferedResponse(response.getRawStatusCode(), response.getStatusText(), response.getHeaders(),
+                    StreamUtils.copyToByteArray(response.getBody()));
+        }
+    }
+
+    int length() {
+        return body.length;
+    }
+
+    @Override
+    public HttpStatus getStatusCode() {
+        return HttpStatus.valueOf(status);
+    }
+
+    @Override
+    public int getRawStatusCode() {
+        return status;
+    }
+
+    @Override
+    public String getStatusText() {
+        return statusText;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public InputStream getBody() {
+        return new ByteArrayInputStream(body);
+    }
+
+    @Override
+    public void close() {
+    }
+}
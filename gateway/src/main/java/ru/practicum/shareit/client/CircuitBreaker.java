@@ -0,0 +1,101 @@
+package ru.practicum.shareit.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Автомат защиты вызовов сервера. После failureThreshold ошибок подряд размыкается и на openDuration
+ * наносекунд отклоняет вызовы, затем пропускает один пробный вызов: успех замыкает цепь, ошибка снова размыкает.
+ * Каждая смена состояния открывает новое поколение; результат вызова учитывается, только если вызов
+ * получил разрешение в текущем поколении, поэтому полуоткрытую цепь замыкает или размыкает лишь пробный вызов.
+ */
+class CircuitBreaker {
+
+    /**
+     * Ответ tryAcquirePermission, когда вызов отклонён
+     */
+    static final long REJECTED = -1L;
+
+    enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private static final class Phase {
+
+        private final State state;
+
+        private final long generation;
+
+        private final long since;
+
+        private Phase(State state, long generation, long since) {
+            this.state = state;
+            this.generation = generation;
+            this.since = since;
+        }
+
+        private Phase next(State state, long now) {
+            return new Phase(state, generation + 1, now);
+        }
+    }
+
+    private final int failureThreshold;
+
+    private final long openDuration;
+
+    private final AtomicReference<Phase> phase = new AtomicReference<>(new Phase(State.CLOSED, 0L, 0L));
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    CircuitBreaker(int failureThreshold, long openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    State getState() {
+        return phase.get().state;
+    }
+
+    /**
+     * Можно ли выполнить вызов. В разомкнутом состоянии по истечении openDuration разрешение получает
+     * только один вызов — пробный
+     *
+     * @return поколение, которое нужно передать в onSuccess/onFailure, или REJECTED
+     */
+    long tryAcquirePermission(long now) {
+        Phase current = phase.get();
+        if (current.state == State.CLOSED) {
+            return current.generation;
+        }
+        if (current.state == State.OPEN && now - current.since >= openDuration) {
+            Phase probe = current.next(State.HALF_OPEN, now);
+            if (phase.compareAndSet(current, probe)) {
+                return probe.generation;
+            }
+        }
+        return REJECTED;
+    }
+
+    void onSuccess(long permission) {
+        Phase current = phase.get();
+        if (current.generation != permission) {
+            return;
+        }
+        if (current.state == State.HALF_OPEN) {
+            phase.compareAndSet(current, current.next(State.CLOSED, current.since));
+        } else {
+            failures.set(0);
+        }
+    }
+
+    void onFailure(long permission, long now) {
+        Phase current = phase.get();
+        if (current.generation != permission) {
+            return;
+        }
+        if ((current.state == State.HALF_OPEN || failures.incrementAndGet() >= failureThreshold)
+                && phase.compareAndSet(current, current.next(State.OPEN, now))) {
+            failures.set(0);
+        }
+    }
+}
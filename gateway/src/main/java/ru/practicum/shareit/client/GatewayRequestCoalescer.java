@@ -0,0 +1,112 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Объединение одинаковых одновременных GET-запросов к серверу (single-flight). Ключ — URI запроса
+ * и пользователь из заголовка X-Sharer-User-Id. Первый запрос уходит на сервер, остальные ждут его ответ
+ * и получают копию; после ответа ключ освобождается, поэтому устаревших данных запрос не получает.
+ * Объединяются только пути из shareit-server.coalescing.paths.
+ */
+@Slf4j
+@Component
+public class GatewayRequestCoalescer implements ClientHttpRequestInterceptor {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final ConcurrentMap<String, CompletableFuture<BufferedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final boolean enabled;
+
+    private final List<String> paths;
+
+    private final Counter leaders;
+
+    private final Counter coalesced;
+
+    public GatewayRequestCoalescer(MeterRegistry meterRegistry,
+                                   @Value("${shareit-server.coalescing.enabled:true}") boolean enabled,
+                                   @Value("${shareit-server.coalescing.paths:/**}") List<String> paths) {
+        this.enabled = enabled;
+        this.paths = paths;
+        this.leaders = Counter.builder("gateway.coalescing.requests")
+                .tag("result", "leader")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("gateway.coalescing.requests")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("gateway.coalescing.in-flight", inFlight, ConcurrentMap::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        if (!enabled || request.getMethod() != HttpMethod.GET || !inScope(request.getURI().getPath())) {
+            return execution.execute(request, body);
+        }
+        String key = request.getURI() + "|" + request.getHeaders().getFirst(USER_HEADER);
+        CompletableFuture<BufferedResponse> call = new CompletableFuture<>();
+        CompletableFuture<BufferedResponse> leader = inFlight.putIfAbsent(key, call);
+        if (leader != null) {
+            coalesced.increment();
+            log.debug("Coalesced {}", key);
+            return await(leader);
+        }
+        leaders.increment();
+        try {
+            BufferedResponse response = BufferedResponse.of(execution.execute(request, body));
+            call.complete(response);
+            return response;
+        } catch (Throwable e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private boolean inScope(String path) {
+        return paths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    private static BufferedResponse await(CompletableFuture<BufferedResponse> leader) throws IOException {
+        try {
+            return leader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a coalesced request");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Кэш GET-ответов сервера в шлюзе. Ключ — URI запроса и пользователь из заголовка X-Sharer-User-Id,
+ * так как владелец и другие пользователи видят вещь по-разному. Сохраняются только ответы с ETag.
+ * Запись не отдаётся без проверки: запрос уходит на сервер с If-None-Match, и при ответе 304
+ * тело берётся из кэша. Размер кэша ограничен суммарным объёмом тел, вытеснение — W-TinyLFU.
+ */
+@Slf4j
+@Component
+public class GatewayResponseCache implements ClientHttpRequestInterceptor {
+
+    public static final String CACHE_NAME = "gateway-responses";
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final Cache<String, CachedResponse> cache;
+
+    private final Counter notModified;
+
+    private final Counter modified;
+
+    public GatewayResponseCache(MeterRegistry meterRegistry,
+                                @Value("${shareit-server.cache.max-size:64MB}") DataSize maxSize,
+                                @Value("${shareit-server.cache.expire-after-access:10m}") Duration expireAfterAccess) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse cached) -> key.length() + cached.response.length())
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.notModified = Counter.builder("gateway.cache.revalidations")
+                .tag("result", "not_modified")
+                .register(meterRegistry);
+        this.modified = Counter.builder("gateway.cache.revalidations")
+                .tag("result", "modified")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        if (request.getMethod() != HttpMethod.GET) {
+            return execution.execute(request, body);
+        }
+        String key = request.getURI() + "|" + request.getHeaders().getFirst(USER_HEADER);
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            request.getHeaders().setIfNoneMatch(cached.etag);
+        }
+        ClientHttpResponse response = execution.execute(request, body);
+        if (cached != null && response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+            response.close();
+            notModified.increment();
+            return cached.response;
+        }
+        if (cached != null) {
+            modified.increment();
+        }
+        String etag = response.getHeaders().getETag();
+        if (response.getRawStatusCode() != HttpStatus.OK.value() || etag == null) {
+            if (cached != null) {
+                cache.invalidate(key);
+            }
+            return response;
+        }
+        BufferedResponse fresh = BufferedResponse.of(response);
+        cache.put(key, new CachedResponse(etag, fresh));
+        log.debug("Cached {} with ETag {}", key, etag);
+        return fresh;
+    }
+
+    /**
+     * Сохранённый ответ 200 и его ETag
+     */
+    private static final class CachedResponse {
+
+        private final String etag;
+
+        private final BufferedResponse response;
+
+        private CachedResponse(String etag, BufferedResponse response) {
+            this.etag = etag;
+            this.response = response;
+        }
+    }
+}
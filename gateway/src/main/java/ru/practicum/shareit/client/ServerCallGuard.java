@@ -0,0 +1,102 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.exception.ServerUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Изоляция вызовов сервера одного клиента: ограничение одновременных вызовов с короткой очередью (bulkhead)
+ * и автомат защиты. Медленный эндпоинт занимает только потоки своего клиента, а при деградации сервера
+ * вызовы сразу завершаются ошибкой {@link ServerUnavailableException}. Ошибкой вызова считаются
+ * сбой соединения или таймаут и ответ 5xx.
+ */
+public class ServerCallGuard {
+
+    private final String client;
+
+    private final Semaphore permits;
+
+    private final int maxQueue;
+
+    private final long maxWait;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final Counter rejected;
+
+    private final Counter shortCircuited;
+
+    ServerCallGuard(String client, int maxConcurrent, int maxQueue, Duration maxWait, CircuitBreaker circuitBreaker,
+                    Counter rejected, Counter shortCircuited) {
+        this.client = client;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxQueue = maxQueue;
+        this.maxWait = maxWait.toNanos();
+        this.circuitBreaker = circuitBreaker;
+        this.rejected = rejected;
+        this.shortCircuited = shortCircuited;
+    }
+
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    CircuitBreaker.State circuitState() {
+        return circuitBreaker.getState();
+    }
+
+    <T> ResponseEntity<T> call(Supplier<ResponseEntity<T>> call) {
+        if (!acquirePermit()) {
+            rejected.increment();
+            throw new ServerUnavailableException("Too many concurrent calls to the server from client " + client);
+        }
+        try {
+            long permission = circuitBreaker.tryAcquirePermission(System.nanoTime());
+            if (permission == CircuitBreaker.REJECTED) {
+                shortCircuited.increment();
+                throw new ServerUnavailableException("Circuit breaker of client " + client + " is open");
+            }
+            ResponseEntity<T> response;
+            try {
+                response = call.get();
+            } catch (RuntimeException e) {
+                circuitBreaker.onFailure(permission, System.nanoTime());
+                throw e;
+            }
+            if (response.getStatusCode().is5xxServerError()) {
+                circuitBreaker.onFailure(permission, System.nanoTime());
+            } else {
+                circuitBreaker.onSuccess(permission);
+            }
+            return response;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean acquirePermit() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            return false;
+        }
+        try {
+            return permits.tryAcquire(maxWait, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+}
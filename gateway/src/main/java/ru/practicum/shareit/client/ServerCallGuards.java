@@ -0,0 +1,63 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Создаёт {@link ServerCallGuard} для клиентов шлюза: у каждого клиента свои лимиты и свой автомат защиты
+ */
+@Component
+public class ServerCallGuards {
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxConcurrent;
+
+    private final int maxQueue;
+
+    private final Duration maxWait;
+
+    private final int failureThreshold;
+
+    private final Duration openDuration;
+
+    public ServerCallGuards(MeterRegistry meterRegistry,
+                            @Value("${shareit-server.bulkhead.max-concurrent:40}") int maxConcurrent,
+                            @Value("${shareit-server.bulkhead.max-queue:10}") int maxQueue,
+                            @Value("${shareit-server.bulkhead.max-wait:500ms}") Duration maxWait,
+                            @Value("${shareit-server.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                            @Value("${shareit-server.circuit-breaker.open-duration:10s}") Duration openDuration) {
+        this.meterRegistry = meterRegistry;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.maxWait = maxWait;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    public ServerCallGuard forClient(String client) {
+        ServerCallGuard guard = new ServerCallGuard(client, maxConcurrent, maxQueue, maxWait,
+                new CircuitBreaker(failureThreshold, openDuration.toNanos()),
+                rejected(client, "bulkhead"), rejected(client, "circuit_open"));
+        Gauge.builder("gateway.client.bulkhead.available", guard, ServerCallGuard::availablePermits)
+                .tag("client", client)
+                .register(meterRegistry);
+        Gauge.builder("gateway.client.circuit.state", guard, g -> g.circuitState().ordinal())
+                .tag("client", client)
+                .description("0 — замкнут, 1 — пробный вызов, 2 — разомкнут")
+                .register(meterRegistry);
+        return guard;
+    }
+
+    private Counter rejected(String client, String reason) {
+        return Counter.builder("gateway.client.rejected")
+                .tag("client", client)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
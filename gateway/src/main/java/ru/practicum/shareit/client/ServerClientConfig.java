@@ -0,0 +1,86 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.client.RestTemplateBuilderConfigurer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Общий пул соединений с сервером для всех клиентов шлюза. Раньше каждый клиент создавал свой пул
+ * с настройками по умолчанию (5 соединений на сервер), и под нагрузкой потоки шлюза ждали свободного соединения.
+ */
+@Configuration
+public class ServerClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager serverConnectionManager(
+            @Value("${shareit-server.pool.max-total:200}") int maxTotal,
+            @Value("${shareit-server.pool.max-per-route:200}") int maxPerRoute,
+            @Value("${shareit-server.pool.validate-after-inactivity:2s}") Duration validateAfterInactivity) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity((int) validateAfterInactivity.toMillis());
+        return connectionManager;
+    }
+
+    /**
+     * Клиент с таймаутами и keep-alive: соединение держится не дольше, чем разрешает сервер,
+     * и не дольше keep-alive шлюза; простаивающие соединения закрываются фоновым потоком
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient serverHttpClient(PoolingHttpClientConnectionManager serverConnectionManager,
+                                                @Value("${shareit-server.timeout.connect:2s}") Duration connectTimeout,
+                                                @Value("${shareit-server.timeout.pool:2s}") Duration poolTimeout,
+                                                @Value("${shareit-server.timeout.read:10s}") Duration readTimeout,
+                                                @Value("${shareit-server.pool.keep-alive:30s}") Duration keepAlive) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setConnectionRequestTimeout((int) poolTimeout.toMillis())
+                .setSocketTimeout((int) readTimeout.toMillis())
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(serverConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE
+                            .getKeepAliveDuration(response, context);
+                    return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAlive.toMillis()) : keepAlive.toMillis();
+                })
+                .evictIdleConnections(keepAlive.toMillis(), TimeUnit.MILLISECONDS)
+                .evictExpiredConnections()
+                .build();
+    }
+
+    /**
+     * Построитель RestTemplate для клиентов: все клиенты работают через один пул соединений
+     * и общий кэш GET-ответов. Объединение запросов стоит перед кэшем, чтобы одинаковые запросы
+     * проверяли запись кэша на сервере один раз
+     */
+    @Bean
+    public RestTemplateBuilder restTemplateBuilder(RestTemplateBuilderConfigurer configurer,
+                                                   CloseableHttpClient serverHttpClient,
+                                                   GatewayRequestCoalescer gatewayRequestCoalescer,
+                                                   GatewayResponseCache gatewayResponseCache) {
+        return configurer.configure(new RestTemplateBuilder())
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(serverHttpClient))
+                .additionalInterceptors(gatewayRequestCoalescer, gatewayResponseCache);
+    }
+
+    @Bean
+    public MeterBinder serverConnectionPoolMetrics(PoolingHttpClientConnectionManager serverConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(serverConnectionManager, "shareit-server");
+    }
+}
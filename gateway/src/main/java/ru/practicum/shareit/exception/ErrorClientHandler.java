@@ -1,6 +1,7 @@
 package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -11,6 +12,8 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import javax.validation.ConstraintViolationException;
+
 @Slf4j
 @RestControllerAdvice(basePackages = "ru.practicum.shareit")
 public class ErrorClientHandler {
@@ -58,6 +61,13 @@ public class ErrorClientHandler {
     }
 
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorClientDto handleConstraintViolationException(ConstraintViolationException e) {
+        log.error(e.getMessage());
+        return new ErrorClientDto("Ошибка валидации");
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorClientDto handleBookingValidException(BookingClientValidationException e) {
@@ -79,6 +89,21 @@ public class ErrorClientHandler {
         return new ErrorClientDto(e.getMessage());
     }
 
+    @ExceptionHandler
+    public ResponseEntity<ErrorClientDto> handleRateLimitExceeded(RateLimitExceededException e) {
+        log.warn("Rate limit exceeded for user {}", e.getUserId());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ErrorClientDto("Слишком много запросов, повторите позже"));
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorClientDto handleServerUnavailable(ServerUnavailableException e) {
+        log.warn(e.getMessage());
+        return new ErrorClientDto("Сервер временно недоступен, повторите запрос позже");
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorClientDto handleOtherException(Exception e) {
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.exception;
+
+public class RateLimitExceededException extends RuntimeException {
+    private final long userId;
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(long userId, long retryAfterSeconds) {
+        this.userId = userId;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getUserId() {
+        return this.userId;
+    }
+
+    public long getRetryAfterSeconds() {
+        return this.retryAfterSeconds;
+    }
+}
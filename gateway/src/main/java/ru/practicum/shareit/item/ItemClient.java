@@ -4,13 +4,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerCallGuards;
 import ru.practicum.shareit.comment.dto.CommentClientDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Service
@@ -19,12 +20,13 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ServerCallGuards guards) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .build(),
+                guards.forClient("items")
         );
     }
 
@@ -40,6 +42,13 @@ public class ItemClient extends BaseClient {
         return get("/" + itemId, userId);
     }
 
+    public ResponseEntity<Object> getAvailability(long itemId, long userId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to);
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
     public ResponseEntity<Object> getAllItems(long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
@@ -47,6 +56,13 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
+    public ResponseEntity<Object> getAllItemsAfter(long userId, String after, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "after", after,
+                "size", size);
+        return get("?after={after}&size={size}", userId, parameters);
+    }
+
     public ResponseEntity<Object> searchItems(Integer from, Integer size, String text, long userId) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
@@ -55,6 +71,17 @@ public class ItemClient extends BaseClient {
         return get("/search?from={from}&size={size}&text={text}", userId, parameters);
     }
 
+    public ResponseEntity<Object> searchAvailableItems(Integer from, Integer size, String text,
+                                                       LocalDateTime start, LocalDateTime end, long userId) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size,
+                "text", text,
+                "start", start,
+                "end", end);
+        return get("/search?from={from}&size={size}&text={text}&start={start}&end={end}", userId, parameters);
+    }
+
     public ResponseEntity<Object> addComment(long userId, long itemId, CommentClientDto commentClientDto) {
         return post("/" + itemId + "/comment", userId, commentClientDto);
     }
@@ -1,14 +1,17 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.comment.dto.CommentClientDto;
+import ru.practicum.shareit.exception.BookingClientValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 import java.util.Collections;
 
 /**
@@ -41,10 +44,25 @@ public class ItemClientController {
         return itemService.getItem(itemId, userId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                  @PathVariable long itemId,
+                                                  @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new BookingClientValidationException();
+        }
+        return itemService.getAvailability(itemId, userId, from, to);
+    }
+
     @GetMapping
     public ResponseEntity<Object> getAllItems(@PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
                                               @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
-                                              @RequestHeader("X-Sharer-User-Id") long userId) {
+                                              @RequestHeader("X-Sharer-User-Id") long userId,
+                                              @RequestParam(name = "after", required = false) String after) {
+        if (after != null) {
+            return itemService.getAllItemsAfter(userId, after, size);
+        }
         return itemService.getAllItems(userId, from, size);
     }
 
@@ -52,10 +70,18 @@ public class ItemClientController {
     public ResponseEntity<Object> searchItems(@PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
                                               @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
                                               @RequestParam(name = "text") String text,
-                                              @RequestHeader("X-Sharer-User-Id") long userId) {
+                                              @RequestHeader("X-Sharer-User-Id") long userId,
+                                              @RequestParam(name = "start", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                              @RequestParam(name = "end", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        if ((start == null) != (end == null) || (start != null && !start.isBefore(end))) {
+            throw new BookingClientValidationException();
+        }
         if (text == null || text.isBlank()) {
             return ResponseEntity.ok(Collections.emptyList());
         }
+        if (start != null) {
+            return itemService.searchAvailableItems(from, size, text, start, end, userId);
+        }
         return itemService.searchItems(from, size, text, userId);
     }
 
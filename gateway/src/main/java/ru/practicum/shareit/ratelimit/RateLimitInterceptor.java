@@ -0,0 +1,112 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.NumberUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.practicum.shareit.exception.RateLimitExceededException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничение частоты запросов пользователя (X-Sharer-User-Id) до обращения к серверу.
+ * У чтения (GET, HEAD) и изменений свой бюджет и свои ведра. Ведро неактивного пользователя удаляется
+ * из памяти, но не раньше, чем оно успело бы наполниться, чтобы удаление не давало лишних токенов.
+ * Ведро выбирается по числовому id, разобранному так же, как его разбирают контроллеры, поэтому «1», «01» и «+1»
+ * расходуют один бюджет. Запросы без заголовка пользователя или с нечисловым заголовком не ограничиваются:
+ * их отклонит контроллер.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final boolean enabled;
+
+    private final Budget read;
+
+    private final Budget write;
+
+    public RateLimitInterceptor(MeterRegistry meterRegistry,
+                                @Value("${shareit-gateway.rate-limit.enabled:true}") boolean enabled,
+                                @Value("${shareit-gateway.rate-limit.read.capacity:100}") long readCapacity,
+                                @Value("${shareit-gateway.rate-limit.read.per-second:50}") double readPerSecond,
+                                @Value("${shareit-gateway.rate-limit.write.capacity:20}") long writeCapacity,
+                                @Value("${shareit-gateway.rate-limit.write.per-second:10}") double writePerSecond,
+                                @Value("${shareit-gateway.rate-limit.expire-after-access:10m}") Duration expireAfterAccess,
+                                @Value("${shareit-gateway.rate-limit.max-users:100000}") long maxUsers) {
+        this.enabled = enabled;
+        this.read = new Budget("read", readCapacity, readPerSecond, expireAfterAccess, maxUsers, meterRegistry);
+        this.write = new Budget("write", writeCapacity, writePerSecond, expireAfterAccess, maxUsers, meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String header = request.getHeader(USER_HEADER);
+        if (!enabled || header == null) {
+            return true;
+        }
+        long userId;
+        try {
+            userId = NumberUtils.parseNumber(header, Long.class);
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+        String method = request.getMethod();
+        Budget budget = HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) ? read : write;
+        long wait = budget.tryAcquire(userId);
+        if (wait > 0) {
+            throw new RateLimitExceededException(userId, TimeUnit.NANOSECONDS.toSeconds(wait - 1) + 1);
+        }
+        return true;
+    }
+
+    /**
+     * Бюджет запросов: ведра пользователей с одинаковыми ёмкостью и скоростью пополнения
+     */
+    private static final class Budget {
+
+        private final long capacity;
+
+        private final long interval;
+
+        private final Cache<Long, TokenBucket> buckets;
+
+        private final Counter rejected;
+
+        private Budget(String name, long capacity, double perSecond, Duration expireAfterAccess, long maxUsers,
+                       MeterRegistry meterRegistry) {
+            this.capacity = capacity;
+            this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+            Duration refill = Duration.ofNanos(capacity * interval);
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxUsers)
+                    .expireAfterAccess(expireAfterAccess.compareTo(refill) > 0 ? expireAfterAccess : refill)
+                    .build();
+            this.rejected = Counter.builder("gateway.rate-limit.rejected")
+                    .tag("budget", name)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.rate-limit.buckets", buckets, Cache::estimatedSize)
+                    .tag("budget", name)
+                    .register(meterRegistry);
+        }
+
+        private long tryAcquire(long userId) {
+            long now = System.nanoTime();
+            long wait = buckets.get(userId, key -> new TokenBucket(capacity, interval, now)).tryAcquire(now);
+            if (wait > 0) {
+                rejected.increment();
+            }
+            return wait;
+        }
+    }
+}
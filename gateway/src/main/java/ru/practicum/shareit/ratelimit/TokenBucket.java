@@ -0,0 +1,40 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Неблокирующий token bucket: ёмкость capacity токенов, один токен восстанавливается за interval наносекунд.
+ * Состояние — одно число, момент, к которому ведро снова станет полным (GCRA), поэтому запрос
+ * обходится одним compare-and-set без блокировок и без отдельного потока пополнения.
+ */
+class TokenBucket {
+
+    private final long interval;
+
+    private final long burst;
+
+    private final AtomicLong fullAt;
+
+    TokenBucket(long capacity, long interval, long now) {
+        this.interval = interval;
+        this.burst = capacity * interval;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Берёт токен. Возвращает 0, если токен получен, иначе — сколько наносекунд ждать следующего
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + interval;
+            long wait = next - burst - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -4,10 +4,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerCallGuards;
 import ru.practicum.shareit.request.dto.ItemRequestClientDto;
 
 import java.util.Map;
@@ -18,12 +18,13 @@ public class RequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ServerCallGuards guards) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .build(),
+                guards.forClient("requests")
         );
     }
 
@@ -42,6 +43,13 @@ public class RequestClient extends BaseClient {
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
+    public ResponseEntity<Object> getAllRequestsAfter(long userId, String after, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "after", after,
+                "size", size);
+        return get("/all?after={after}&size={size}", userId, parameters);
+    }
+
     public ResponseEntity<Object> getRequestById(long userId, long requestId) {
         return get("/" + requestId, userId);
     }
@@ -37,8 +37,11 @@ public class RequestController {
     @GetMapping("/all")
     public ResponseEntity<Object> getAllRequests(@PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
                                                  @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
-                                                 @RequestHeader("X-Sharer-User-Id") Long userId) {
-
+                                                 @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                 @RequestParam(name = "after", required = false) String after) {
+        if (after != null) {
+            return itemRequestService.getAllRequestsAfter(userId, after, size);
+        }
         return itemRequestService.getAllRequests(userId, from, size);
     }
 
@@ -3,9 +3,11 @@ package ru.practicum.shareit.booking;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -15,8 +17,10 @@ import org.springframework.test.web.client.MockRestServiceServer;
 import ru.practicum.shareit.booking.dto.BookingClientDto;
 import ru.practicum.shareit.booking.dto.BookingClientRequestDto;
 import ru.practicum.shareit.booking.dto.BookingClientState;
+import ru.practicum.shareit.client.ServerCallGuards;
 import ru.practicum.shareit.data.BookingTestData;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -28,7 +32,8 @@ import static org.springframework.test.web.client.response.MockRestResponseCreat
 @TestPropertySource(properties = {
         "shareit-server.url=test-url",
 })
-@RestClientTest(BookingClient.class)
+@RestClientTest({BookingClient.class, ServerCallGuards.class})
+@Import(SimpleMeterRegistry.class)
 class BookingClientTest {
 
     private static final String API_PREFIX = "/bookings";
@@ -65,6 +70,22 @@ class BookingClientTest {
         assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
     }
 
+    @Test
+    void createBookings() throws JsonProcessingException {
+        List<BookingClientRequestDto> bookings = List.of(BookingTestData.getBookinReqDto());
+        String body = "[{\"index\":0,\"status\":201}]";
+        this.mockRestServiceServer.expect(requestTo("test-url" + API_PREFIX + "/batch"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withStatus(HttpStatus.OK)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(body));
+
+        ResponseEntity<Object> result = bookingClient.createBookings(1L, bookings);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
+    }
+
     @Test
     void updateBooking() throws JsonProcessingException {
         BookingClientDto bookingClientDto = BookingTestData.getBookingDto();
@@ -77,7 +98,7 @@ class BookingClientTest {
                         .body(body));
         ResponseEntity<Object> result = bookingClient.updateBooking(1L, bookingClientDto.getId(), true);
 
-        assertEquals(body, objectMapper.writeValueAsString(result.getBody()));
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
     }
 
     @Test
@@ -105,7 +126,7 @@ class BookingClientTest {
 
         ResponseEntity<Object> result = bookingClient.getBooking(1L, bookingClientDto.getId());
 
-        assertEquals(body, objectMapper.writeValueAsString(result.getBody()));
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
     }
 
     @Test
@@ -135,7 +156,7 @@ class BookingClientTest {
         ResponseEntity<Object> result = bookingClient.getBookingsForCurrentUser(1L, BookingClientState.ALL,
                 0, 1);
 
-        assertEquals(body, objectMapper.writeValueAsString(result.getBody()));
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
     }
 
     @Test
@@ -167,7 +188,7 @@ class BookingClientTest {
         ResponseEntity<Object> result = bookingClient.getBookingsForAllItems(1L, BookingClientState.ALL,
                 0, 1);
 
-        assertEquals(body, objectMapper.writeValueAsString(result.getBody()));
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
     }
 
     @Test
@@ -8,11 +8,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.validation.beanvalidation.MethodValidationInterceptor;
 import ru.practicum.shareit.booking.dto.BookingClientDto;
 import ru.practicum.shareit.booking.dto.BookingClientRequestDto;
 import ru.practicum.shareit.booking.dto.BookingClientState;
@@ -24,11 +26,15 @@ import ru.practicum.shareit.exception.BookingClientValidationException;
 import ru.practicum.shareit.exception.ErrorClientHandler;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -50,8 +56,12 @@ class BookingControllerTest {
 
     @BeforeEach
     void setUp() {
+        // @Validated на контроллере: в приложении проверку параметров выполняет прокси
+        ProxyFactory proxyFactory = new ProxyFactory(bookingController);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new MethodValidationInterceptor());
         mockMvc = MockMvcBuilders
-                .standaloneSetup(bookingController)
+                .standaloneSetup(proxyFactory.getProxy())
                 .setControllerAdvice(ErrorClientHandler.class)
                 .build();
     }
@@ -78,6 +88,58 @@ class BookingControllerTest {
 
     }
 
+    @Test
+    void createBookingsTest_200_ok() throws Exception {
+        objectMapper.registerModule(new JavaTimeModule());
+        when(bookingService.createBookings(anyLong(), any()))
+                .thenReturn(ResponseEntity.ok(List.of(Map.of("index", 0, "status", 201),
+                        Map.of("index", 1, "status", 404, "error", "Товар не найден"))));
+
+        mockMvc.perform(post("/bookings/batch")
+                        .content(objectMapper.writeValueAsString(List.of(BookingTestData.getBookinReqDto(),
+                                BookingTestData.getBookinReqDto())))
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$[0].status", is(201)))
+                .andExpect(jsonPath("$[1].status", is(404)));
+    }
+
+    @Test
+    void createBookingsTest_when_date_in_past_400_error() throws Exception {
+        objectMapper.registerModule(new JavaTimeModule());
+        BookingClientRequestDto past = BookingTestData.getBookinReqDto();
+        past.setStart(LocalDateTime.now().minusDays(1));
+
+        mockMvc.perform(post("/bookings/batch")
+                        .content(objectMapper.writeValueAsString(List.of(BookingTestData.getBookinReqDto(), past)))
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andDo(print());
+    }
+
+    @Test
+    void createBookingsTest_when_element_null_or_batch_empty_400_error() throws Exception {
+        objectMapper.registerModule(new JavaTimeModule());
+        BookingClientRequestDto withoutStart = BookingTestData.getBookinReqDto();
+        withoutStart.setStart(null);
+
+        for (String content : List.of("[null]", "[]",
+                objectMapper.writeValueAsString(List.of(BookingTestData.getBookinReqDto(), withoutStart)))) {
+            mockMvc.perform(post("/bookings/batch")
+                            .content(content)
+                            .header("X-Sharer-User-Id", 1)
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+        }
+        verify(bookingService, never()).createBookings(anyLong(), any());
+    }
+
     @Test
     void createBookingTest_when_correct_data_400_error() throws Exception {
         objectMapper.registerModule(new JavaTimeModule());
@@ -287,8 +349,6 @@ class BookingControllerTest {
     @Test
     void getBookingsForCurrentUserWhen_400_error() throws Exception {
         objectMapper.registerModule(new JavaTimeModule());
-        when(bookingService.getBookingsForCurrentUser(anyLong(), any(BookingClientState.class), any(), any()))
-                .thenThrow(BookingClientValidationException.class);
         mockMvc.perform(get("/bookings")
                         .param("from", "0")
                         .param("size", "-1")
@@ -353,8 +413,6 @@ class BookingControllerTest {
     @Test
     void getBookingsForAllItems_400_error() throws Exception {
         objectMapper.registerModule(new JavaTimeModule());
-        when(bookingService.getBookingsForAllItems(anyLong(), any(BookingClientState.class), any(), any()))
-                .thenThrow(BookingClientValidationException.class);
         mockMvc.perform(get("/bookings/owner")
                         .param("from", "0")
                         .param("size", "-1")
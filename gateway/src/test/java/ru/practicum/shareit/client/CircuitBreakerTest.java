@@ -0,0 +1,76 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CircuitBreakerTest {
+
+    private static final long OPEN = 1_000L;
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(3, OPEN);
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        long permission = circuitBreaker.tryAcquirePermission(0);
+        circuitBreaker.onFailure(permission, 0);
+        circuitBreaker.onFailure(permission, 0);
+        circuitBreaker.onSuccess(permission);
+        circuitBreaker.onFailure(permission, 0);
+        circuitBreaker.onFailure(permission, 0);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        circuitBreaker.onFailure(permission, 10);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, circuitBreaker.tryAcquirePermission(10 + OPEN - 1));
+    }
+
+    @Test
+    void halfOpenLetsOneProbeThrough() {
+        open();
+
+        long probe = circuitBreaker.tryAcquirePermission(OPEN);
+        assertNotEquals(CircuitBreaker.REJECTED, probe);
+        assertEquals(CircuitBreaker.REJECTED, circuitBreaker.tryAcquirePermission(OPEN));
+        circuitBreaker.onSuccess(probe);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertNotEquals(CircuitBreaker.REJECTED, circuitBreaker.tryAcquirePermission(OPEN));
+    }
+
+    @Test
+    void failedProbeOpensAgain() {
+        open();
+
+        long probe = circuitBreaker.tryAcquirePermission(OPEN);
+        circuitBreaker.onFailure(probe, OPEN);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, circuitBreaker.tryAcquirePermission(2 * OPEN - 1));
+        assertNotEquals(CircuitBreaker.REJECTED, circuitBreaker.tryAcquirePermission(2 * OPEN));
+    }
+
+    @Test
+    void callsStartedBeforeProbeDoNotDecideHalfOpenState() {
+        long slowSuccess = circuitBreaker.tryAcquirePermission(0);
+        long slowFailure = circuitBreaker.tryAcquirePermission(0);
+        open();
+
+        long probe = circuitBreaker.tryAcquirePermission(OPEN);
+        circuitBreaker.onSuccess(slowSuccess);
+        circuitBreaker.onFailure(slowFailure, OPEN);
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.onSuccess(probe);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    private void open() {
+        long permission = circuitBreaker.tryAcquirePermission(0);
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onFailure(permission, 0);
+        }
+    }
+}
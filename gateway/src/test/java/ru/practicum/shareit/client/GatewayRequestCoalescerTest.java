@@ -0,0 +1,111 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GatewayRequestCoalescerTest {
+
+    private static final URI ITEM = URI.create("http://server/items/1");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final GatewayRequestCoalescer coalescer = new GatewayRequestCoalescer(meterRegistry, true,
+            List.of("/items/**"));
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    /**
+     * Ответ сервера, который задерживается до release для пользователя 1
+     */
+    private final ClientHttpRequestExecution server = (request, body) -> {
+        upstreamCalls.incrementAndGet();
+        if ("1".equals(request.getHeaders().getFirst("X-Sharer-User-Id"))) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return new MockClientHttpResponse("{\"id\":1}".getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+    };
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentIdenticalGetsShareOneUpstreamCall() throws Exception {
+        List<Future<String>> responses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            responses.add(executor.submit(() -> body(get(1L))));
+        }
+        awaitCoalesced(3);
+        release.countDown();
+
+        for (Future<String> response : responses) {
+            assertEquals("{\"id\":1}", response.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void requestsOfDifferentUsersAreNotCoalesced() throws Exception {
+        Future<String> first = executor.submit(() -> body(get(1L)));
+        while (upstreamCalls.get() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertEquals("{\"id\":1}", body(get(2L)));
+        release.countDown();
+        assertEquals("{\"id\":1}", first.get(5, TimeUnit.SECONDS));
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(0.0, meterRegistry.get("gateway.coalescing.requests").tag("result", "coalesced")
+                .counter().count());
+    }
+
+    private ClientHttpResponse get(long userId) throws Exception {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, ITEM);
+        request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+        return coalescer.intercept(request, new byte[0], server);
+    }
+
+    private void awaitCoalesced(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("gateway.coalescing.requests").tag("result", "coalesced").counter().count() < count) {
+            assertTrue(System.nanoTime() < deadline, "Requests were not coalesced");
+            Thread.sleep(10);
+        }
+    }
+
+    private static String body(ClientHttpResponse response) throws Exception {
+        return StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class GatewayResponseCacheTest {
+
+    private static final String URL = "http://server/items/1";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RestTemplate rest = new RestTemplate();
+
+    private final MockRestServiceServer server;
+
+    GatewayResponseCacheTest() {
+        rest.getInterceptors().add(new GatewayResponseCache(meterRegistry, DataSize.ofMegabytes(1),
+                Duration.ofMinutes(1)));
+        server = MockRestServiceServer.bindTo(rest).build();
+    }
+
+    @Test
+    void notModifiedIsServedFromCache() {
+        server.expect(requestTo(URL))
+                .andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON).headers(etag("\"1\"")));
+        server.expect(requestTo(URL))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        assertEquals("{\"id\":1}", get(1L).getBody());
+        ResponseEntity<String> cached = get(1L);
+
+        server.verify();
+        assertEquals(HttpStatus.OK, cached.getStatusCode());
+        assertEquals("{\"id\":1}", cached.getBody());
+        assertEquals("\"1\"", cached.getHeaders().getETag());
+        assertEquals(1.0, meterRegistry.get("gateway.cache.revalidations").tag("result", "not_modified")
+                .counter().count());
+    }
+
+    @Test
+    void modifiedResponseReplacesCachedOne() {
+        server.expect(requestTo(URL))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON).headers(etag("\"1\"")));
+        server.expect(requestTo(URL))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andRespond(withSuccess("{\"id\":2}", MediaType.APPLICATION_JSON).headers(etag("\"2\"")));
+        server.expect(requestTo(URL))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        get(1L);
+        assertEquals("{\"id\":2}", get(1L).getBody());
+        assertEquals("{\"id\":2}", get(1L).getBody());
+
+        server.verify();
+    }
+
+    @Test
+    void responsesAreCachedPerUser() {
+        server.expect(requestTo(URL))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON).headers(etag("\"1\"")));
+        server.expect(requestTo(URL))
+                .andExpect(header("X-Sharer-User-Id", "2"))
+                .andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON));
+
+        get(1L);
+        get(2L);
+
+        server.verify();
+    }
+
+    private ResponseEntity<String> get(long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        return rest.exchange(URL, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private static HttpHeaders etag(String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        return headers;
+    }
+}
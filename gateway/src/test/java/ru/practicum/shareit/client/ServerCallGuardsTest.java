@@ -0,0 +1,71 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.exception.ServerUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ServerCallGuardsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ServerCallGuards guards = new ServerCallGuards(meterRegistry, 1, 0, Duration.ZERO, 2,
+            Duration.ofMinutes(1));
+
+    @Test
+    void callsOverBulkheadLimitAreRejected() throws Exception {
+        ServerCallGuard guard = guards.forClient("bookings");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<Object>> slow = CompletableFuture.supplyAsync(() -> guard.<Object>call(() -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ResponseEntity.ok().build();
+        }));
+        started.await(5, TimeUnit.SECONDS);
+
+        assertThrows(ServerUnavailableException.class, () -> guard.call(() -> ResponseEntity.ok().build()));
+        ServerCallGuard otherClient = guards.forClient("users");
+        assertEquals(HttpStatus.OK, otherClient.call(() -> ResponseEntity.ok().build()).getStatusCode());
+
+        release.countDown();
+        assertEquals(HttpStatus.OK, slow.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(1.0, meterRegistry.get("gateway.client.rejected").tag("client", "bookings")
+                .tag("reason", "bulkhead").counter().count());
+    }
+
+    @Test
+    void serverErrorsOpenCircuit() {
+        ServerCallGuard guard = guards.forClient("items");
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            guard.call(() -> {
+                calls.incrementAndGet();
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            });
+        }
+
+        assertThrows(ServerUnavailableException.class, () -> guard.call(() -> {
+            calls.incrementAndGet();
+            return ResponseEntity.ok().build();
+        }));
+        assertEquals(2, calls.get());
+        assertEquals(1.0, meterRegistry.get("gateway.client.rejected").tag("client", "items")
+                .tag("reason", "circuit_open").counter().count());
+    }
+}
@@ -3,20 +3,24 @@ package ru.practicum.shareit.item;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.client.MockRestServiceServer;
+import ru.practicum.shareit.client.ServerCallGuards;
 import ru.practicum.shareit.comment.dto.CommentClientDto;
 import ru.practicum.shareit.data.ItemTestData;
 import ru.practicum.shareit.item.dto.ItemClientWithBooking;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -27,7 +31,8 @@ import static org.springframework.test.web.client.response.MockRestResponseCreat
 @TestPropertySource(properties = {
         "shareit-server.url=test-url",
 })
-@RestClientTest(ItemClient.class)
+@RestClientTest({ItemClient.class, ServerCallGuards.class})
+@Import(SimpleMeterRegistry.class)
 class ItemClientTest {
 
     private static final String API_PREFIX = "/items";
@@ -52,7 +57,7 @@ class ItemClientTest {
 
         ResponseEntity<Object> result = itemClient.createItem(1L, itemClientDto);
         assertEquals(HttpStatus.CREATED, result.getStatusCode());
-        assertEquals(body, objectMapper.writeValueAsString(result.getBody()));
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
     }
 
     @Test
@@ -81,7 +86,7 @@ class ItemClientTest {
 
         ResponseEntity<Object> result = itemClient.updateItemDto(1L, itemClientDto, 1L);
         assertEquals(HttpStatus.OK, result.getStatusCode());
-        assertEquals(body, objectMapper.writeValueAsString(result.getBody()));
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
     }
 
     @Test
@@ -112,7 +117,7 @@ class ItemClientTest {
         ResponseEntity<Object> result = itemClient.getItem(1L, 1L);
 
         assertEquals(HttpStatus.OK, result.getStatusCode());
-        assertEquals(body, objectMapper.writeValueAsString(result.getBody()));
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
     }
 
     @Test
@@ -145,7 +150,7 @@ class ItemClientTest {
         ResponseEntity<Object> result = itemClient.getAllItems(1L, 0, 1);
 
         assertEquals(HttpStatus.OK, result.getStatusCode());
-        assertEquals(body, objectMapper.writeValueAsString(result.getBody()));
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
     }
 
     @Test
@@ -178,7 +183,7 @@ class ItemClientTest {
         ResponseEntity<Object> result = itemClient.searchItems(0, 1, "test", 1L);
 
         assertEquals(HttpStatus.OK, result.getStatusCode());
-        assertEquals(body, objectMapper.writeValueAsString(result.getBody()));
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
     }
 
     @Test
@@ -210,7 +215,7 @@ class ItemClientTest {
         ResponseEntity<Object> result = itemClient.addComment(1L, 1L, commentClientDto);
 
         assertEquals(HttpStatus.CREATED, result.getStatusCode());
-        assertEquals(body, objectMapper.writeValueAsString(result.getBody()));
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
     }
 
     @Test
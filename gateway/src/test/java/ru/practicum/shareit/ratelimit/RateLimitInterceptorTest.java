@@ -0,0 +1,117 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.exception.ErrorClientHandler;
+import ru.practicum.shareit.item.ItemClient;
+import ru.practicum.shareit.item.ItemClientController;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitInterceptorTest {
+
+    @Mock
+    private ItemClient itemClient;
+
+    @InjectMocks
+    private ItemClientController itemController;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitInterceptor rateLimitInterceptor = new RateLimitInterceptor(meterRegistry, true,
+                2, 0.001, 1, 0.001, Duration.ofMinutes(10), 100);
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(itemController)
+                .addInterceptors(rateLimitInterceptor)
+                .setControllerAdvice(ErrorClientHandler.class)
+                .build();
+    }
+
+    @Test
+    void readsOverBudgetGet429WithRetryAfter() throws Exception {
+        when(itemClient.getItem(anyLong(), anyLong())).thenReturn(ResponseEntity.ok().build());
+
+        mockMvc.perform(get("/items/1").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/items/1").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/items/1").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1000"))
+                .andExpect(jsonPath("$.error").exists());
+        mockMvc.perform(get("/items/1").header("X-Sharer-User-Id", 2))
+                .andExpect(status().isOk());
+
+        verify(itemClient, times(3)).getItem(anyLong(), anyLong());
+        assertEquals(1.0, meterRegistry.get("gateway.rate-limit.rejected").tag("budget", "read")
+                .counter().count());
+    }
+
+    @Test
+    void writesHaveSeparateBudget() throws Exception {
+        when(itemClient.getItem(anyLong(), anyLong())).thenReturn(ResponseEntity.ok().build());
+        when(itemClient.updateItemDto(anyLong(), any(), anyLong())).thenReturn(ResponseEntity.ok().build());
+
+        mockMvc.perform(patch("/items/1").header("X-Sharer-User-Id", 1)
+                        .content("{}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/items/1").header("X-Sharer-User-Id", 1)
+                        .content("{}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/items/1").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void equivalentUserHeadersShareBudget() throws Exception {
+        when(itemClient.getItem(anyLong(), anyLong())).thenReturn(ResponseEntity.ok().build());
+
+        mockMvc.perform(get("/items/1").header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/items/1").header("X-Sharer-User-Id", "01"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/items/1").header("X-Sharer-User-Id", "+1"))
+                .andExpect(status().isTooManyRequests());
+
+        verify(itemClient, times(2)).getItem(anyLong(), anyLong());
+    }
+
+    @Test
+    void invalidUserHeaderPassesToController() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/items/1").header("X-Sharer-User-Id", "one"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        verify(itemClient, times(0)).getItem(anyLong(), anyLong());
+    }
+}
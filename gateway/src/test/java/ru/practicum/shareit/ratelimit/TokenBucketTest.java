@@ -0,0 +1,34 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void burstUpToCapacityThenWaitForRefill() {
+        TokenBucket bucket = new TokenBucket(3, SECOND, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(SECOND, bucket.tryAcquire(0));
+        assertEquals(SECOND / 2, bucket.tryAcquire(SECOND / 2));
+        assertEquals(0, bucket.tryAcquire(SECOND));
+        assertEquals(SECOND, bucket.tryAcquire(SECOND));
+    }
+
+    @Test
+    void idleBucketRefillsOnlyToCapacity() {
+        TokenBucket bucket = new TokenBucket(2, SECOND, 0);
+        bucket.tryAcquire(0);
+
+        long later = 100 * SECOND;
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(SECOND, bucket.tryAcquire(later));
+    }
+}
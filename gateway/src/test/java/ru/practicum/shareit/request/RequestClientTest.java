@@ -2,19 +2,23 @@ package ru.practicum.shareit.request;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.client.MockRestServiceServer;
+import ru.practicum.shareit.client.ServerCallGuards;
 import ru.practicum.shareit.data.ItemRequestTestData;
 import ru.practicum.shareit.request.dto.ItemRequestClientDto;
 import ru.practicum.shareit.request.dto.RequestClientInfoDto;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -25,7 +29,8 @@ import static org.springframework.test.web.client.response.MockRestResponseCreat
 @TestPropertySource(properties = {
         "shareit-server.url=test-url",
 })
-@RestClientTest(RequestClient.class)
+@RestClientTest({RequestClient.class, ServerCallGuards.class})
+@Import(SimpleMeterRegistry.class)
 class RequestClientTest {
 
     private static final String API_PREFIX = "/requests";
@@ -50,7 +55,7 @@ class RequestClientTest {
 
         ResponseEntity<Object> result = requestClient.createRequest(1L, requestClientDto);
         assertEquals(HttpStatus.CREATED, result.getStatusCode());
-        assertEquals(body, objectMapper.writeValueAsString(result.getBody()));
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
     }
 
     @Test
@@ -80,7 +85,7 @@ class RequestClientTest {
         ResponseEntity<Object> result = requestClient.getAllRequestsForOwner(1L);
 
         assertEquals(HttpStatus.OK, result.getStatusCode());
-        assertEquals(body, objectMapper.writeValueAsString(result.getBody()));
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
     }
 
     @Test
@@ -109,7 +114,7 @@ class RequestClientTest {
         ResponseEntity<Object> result = requestClient.getAllRequests(1L, 0, 1);
 
         assertEquals(HttpStatus.OK, result.getStatusCode());
-        assertEquals(body, objectMapper.writeValueAsString(result.getBody()));
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
     }
 
     @Test
@@ -139,7 +144,7 @@ class RequestClientTest {
         ResponseEntity<Object> result = requestClient.getRequestById(1L, 1L);
 
         assertEquals(HttpStatus.OK, result.getStatusCode());
-        assertEquals(body, objectMapper.writeValueAsString(result.getBody()));
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
     }
 
     @Test
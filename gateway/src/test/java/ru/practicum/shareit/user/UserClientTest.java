@@ -2,18 +2,22 @@ package ru.practicum.shareit.user;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.client.MockRestServiceServer;
+import ru.practicum.shareit.client.ServerCallGuards;
 import ru.practicum.shareit.data.UserTestData;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -24,7 +28,8 @@ import static org.springframework.test.web.client.response.MockRestResponseCreat
 @TestPropertySource(properties = {
         "shareit-server.url=test-url",
 })
-@RestClientTest(UserClient.class)
+@RestClientTest({UserClient.class, ServerCallGuards.class})
+@Import(SimpleMeterRegistry.class)
 public class UserClientTest {
 
     private static final String API_PREFIX = "/users";
@@ -49,7 +54,7 @@ public class UserClientTest {
 
         ResponseEntity<Object> result = userClient.createUser(userClientDto);
         assertEquals(HttpStatus.CREATED, result.getStatusCode());
-        assertEquals(body, objectMapper.writeValueAsString(result.getBody()));
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
     }
 
     @Test
@@ -77,7 +82,8 @@ public class UserClientTest {
 
         ResponseEntity<Object> result = userClient.getUserById(1L);
         assertEquals(HttpStatus.OK, result.getStatusCode());
-        assertEquals(body, objectMapper.writeValueAsString(result.getBody()));
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
+        assertEquals(MediaType.APPLICATION_JSON, result.getHeaders().getContentType());
     }
 
     @Test
@@ -104,7 +110,7 @@ public class UserClientTest {
 
         ResponseEntity<Object> result = userClient.updateUser(1L, userClientDto);
         assertEquals(HttpStatus.OK, result.getStatusCode());
-        assertEquals(body, objectMapper.writeValueAsString(result.getBody()));
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
     }
 
     @Test
@@ -143,7 +149,7 @@ public class UserClientTest {
 
         ResponseEntity<Object> result = userClient.getAllUsers();
         assertEquals(HttpStatus.OK, result.getStatusCode());
-        assertEquals(body, objectMapper.writeValueAsString(result.getBody()));
+        assertEquals(body, new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
     }
 
     @Test
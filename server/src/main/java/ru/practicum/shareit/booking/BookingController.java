@@ -5,10 +5,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
 
@@ -30,6 +33,12 @@ public class BookingController {
         return ResponseEntity.status(HttpStatus.CREATED).body(bookingService.createBooking(userId, bookingClientRequestDto));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookingBatchResultDto>> createBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                                      @RequestBody List<BookingRequestDto> bookings) {
+        return ResponseEntity.ok(bookingService.createBookings(userId, bookings));
+    }
+
     @PatchMapping("/{bookingId}")
     public ResponseEntity<BookingDto> updateBooking(@RequestHeader("X-Sharer-User-Id") long userId,
                                                           @PathVariable long bookingId,
@@ -39,24 +48,34 @@ public class BookingController {
 
     @GetMapping("/{bookingId}")
     public ResponseEntity<BookingDto> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                       @PathVariable long bookingId) {
+                                                       @PathVariable long bookingId, WebRequest request) {
+        if (request.checkNotModified(bookingService.getBookingTag(userId, bookingId))) {
+            return null;
+        }
         return ResponseEntity.ok(bookingService.getBooking(userId, bookingId));
     }
 
     @GetMapping
-    public List<BookingDto> getBookingsForCurrentUser(@RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                            @RequestParam(name = "size", defaultValue = "10") Integer size,
-                                                            @RequestHeader("X-Sharer-User-Id") long userId,
-                                                            @RequestParam(name = "state", defaultValue = "ALL") BookingState state) {
-        return bookingService.getBookingsForCurrentUser(userId, state, from, size);
+    public ResponseEntity<List<BookingDto>> getBookingsForCurrentUser(@RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                      @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                                      @RequestHeader("X-Sharer-User-Id") long userId,
+                                                                      @RequestParam(name = "state", defaultValue = "ALL") BookingState state,
+                                                                      @RequestParam(name = "after", required = false) PageCursor after) {
+        List<BookingDto> bookings = after == null
+                ? bookingService.getBookingsForCurrentUser(userId, state, from, size)
+                : bookingService.getBookingsForCurrentUserAfter(userId, state, after, size);
+        return PageCursor.page(bookings, size, booking -> new PageCursor(booking.getStart(), booking.getId()));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getBookingsForAllItems(@RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                         @RequestParam(name = "size", defaultValue = "10") Integer size,
-                                                         @RequestHeader("X-Sharer-User-Id") long userId,
-                                                         @RequestParam(name = "state", defaultValue = "ALL") BookingState state) {
-
-        return bookingService.getBookingsForAllItems(userId, state, from, size);
+    public ResponseEntity<List<BookingDto>> getBookingsForAllItems(@RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                   @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                                   @RequestHeader("X-Sharer-User-Id") long userId,
+                                                                   @RequestParam(name = "state", defaultValue = "ALL") BookingState state,
+                                                                   @RequestParam(name = "after", required = false) PageCursor after) {
+        List<BookingDto> bookings = after == null
+                ? bookingService.getBookingsForAllItems(userId, state, from, size)
+                : bookingService.getBookingsForAllItemsAfter(userId, state, after, size);
+        return PageCursor.page(bookings, size, booking -> new PageCursor(booking.getStart(), booking.getId()));
     }
 }
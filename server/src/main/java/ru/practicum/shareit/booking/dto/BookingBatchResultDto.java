@@ -0,0 +1,30 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат создания одного бронирования из пакета
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingBatchResultDto {
+    /**
+     * Номер бронирования в пакете
+     */
+    private int index;
+    /**
+     * HTTP-статус, который вернул бы одиночный запрос
+     */
+    private int status;
+    /**
+     * Созданное бронирование, если создание прошло успешно
+     */
+    private BookingDto booking;
+    /**
+     * Описание ошибки
+     */
+    private String error;
+}
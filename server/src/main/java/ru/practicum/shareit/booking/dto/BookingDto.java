@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.dto.ItemClientDto;
 import ru.practicum.shareit.user.dto.UserClientDto;
@@ -11,6 +12,7 @@ import java.time.LocalDateTime;
  * Бронирование
  */
 @Data
+@NoArgsConstructor
 public class BookingDto {
     /**
      * Уникальный идентификатор бронирования
@@ -36,4 +38,21 @@ public class BookingDto {
      * Статус бронирования {@link BookingStatus}
      */
     private BookingStatus status;
+
+    /**
+     * Конструктор для выборки списков запросом {@code SELECT new}
+     */
+    public BookingDto(Long id, LocalDateTime start, LocalDateTime end, Long itemId, String itemName,
+                      Long bookerId, String bookerEmail, BookingStatus status) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.item = new ItemClientDto();
+        this.item.setId(itemId);
+        this.item.setName(itemName);
+        this.booker = new UserClientDto();
+        this.booker.setId(bookerId);
+        this.booker.setEmail(bookerEmail);
+        this.status = status;
+    }
 }
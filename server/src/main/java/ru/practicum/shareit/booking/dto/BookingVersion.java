@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * Версии бронирования, вещи и автора бронирования для ETag, а также участники для проверки доступа
+ */
+public interface BookingVersion {
+
+    long getVersion();
+
+    long getItemVersion();
+
+    long getBookerVersion();
+
+    long getOwnerId();
+
+    long getBookerId();
+}
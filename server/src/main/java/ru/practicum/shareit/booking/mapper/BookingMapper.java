@@ -25,5 +25,11 @@ public interface BookingMapper {
 
     Booking fromDto(BookingDto bookingClientDto);
 
+    /**
+     * Новое бронирование без идентификатора, чтобы сохранение шло через persist, а не merge
+     */
+    @Mapping(target = "id", ignore = true)
+    Booking fromNewDto(BookingDto bookingClientDto);
+
     List<BookingDto> toListDto(List<Booking> bookingList);
 }
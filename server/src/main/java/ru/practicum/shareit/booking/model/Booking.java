@@ -1,6 +1,8 @@
 package ru.practicum.shareit.booking.model;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.hibernate.annotations.TypeDef;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -14,26 +16,47 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = Booking.WITH_ITEM_AND_BOOKER, attributeNodes = {
+        @NamedAttributeNode("item"),
+        @NamedAttributeNode("booker")
+})
 @TypeDef(name = "booking_status",
         typeClass = BookingStatus.class)
 public class Booking {
 
+    /**
+     * Граф загрузки для преобразования в {@link ru.practicum.shareit.booking.dto.BookingDto}
+     */
+    public static final String WITH_ITEM_AND_BOOKER = "Booking.itemAndBooker";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
+    /**
+     * Версия строки, растёт при каждом изменении; из неё строится ETag
+     */
+    @Version
+    @Column(name = "version")
+    private long version;
+
     @Column(name = "start_date")
     private LocalDateTime start;
 
     @Column(name = "end_date")
     private LocalDateTime end;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Item item;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User booker;
 
     @Column(name = "status")
@@ -2,45 +2,150 @@ package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingVersion;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBookerId(Long bookerId, Pageable pageable);
 
-    @Query(value = "SELECT b FROM Booking b where b.booker.id = :booker and b.start < now() " +
-            "and b.end > now()")
-    List<Booking> findAllCurrent(@Param("booker") Long booker, Pageable pageable);
+    /**
+     * Выборка бронирований сразу в {@link BookingDto}: списки читаются без загрузки сущностей в контекст
+     */
+    String BOOKING_DTO = "SELECT new ru.practicum.shareit.booking.dto.BookingDto(b.id, b.start, b.end, i.id, i.name, " +
+            "u.id, u.email, b.status) FROM Booking b JOIN b.item i JOIN b.booker u ";
 
-    List<Booking> findAllByBookerIdAndEndBefore(Long bookerId, LocalDateTime date, Pageable pageable);
+    String SEEK_BY_START = "and (b.start < :start or (b.start = :start and b.id < :id))";
 
-    List<Booking> findAllByBookerIdAndStartAfter(Long bookerId, LocalDateTime date, Pageable pageable);
+    @Override
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    Optional<Booking> findById(Long id);
 
-    List<Booking> findAllByBookerIdAndStatus(Long bookerId, BookingStatus status, Pageable pageable);
+    @Query("SELECT b.version AS version, i.version AS itemVersion, u.version AS bookerVersion, " +
+            "i.owner.id AS ownerId, u.id AS bookerId FROM Booking b JOIN b.item i JOIN b.booker u WHERE b.id = :id")
+    Optional<BookingVersion> findVersionById(@Param("id") Long bookingId);
 
-    List<Booking> findAllByItemId(Long itemId, Pageable pageable);
+    @Query(BOOKING_DTO + "where b.booker.id = :booker")
+    List<BookingDto> findAllByBookerId(@Param("booker") Long bookerId, Pageable pageable);
+
+    @Query(BOOKING_DTO + "where b.booker.id = :booker and b.start < now() and b.end > now()")
+    List<BookingDto> findAllCurrent(@Param("booker") Long booker, Pageable pageable);
+
+    @Query(BOOKING_DTO + "where b.booker.id = :booker and b.end < :date")
+    List<BookingDto> findAllByBookerIdAndEndBefore(@Param("booker") Long bookerId, @Param("date") LocalDateTime date,
+                                                   Pageable pageable);
+
+    @Query(BOOKING_DTO + "where b.booker.id = :booker and b.start > :date")
+    List<BookingDto> findAllByBookerIdAndStartAfter(@Param("booker") Long bookerId, @Param("date") LocalDateTime date,
+                                                    Pageable pageable);
+
+    @Query(BOOKING_DTO + "where b.booker.id = :booker and b.status = :status")
+    List<BookingDto> findAllByBookerIdAndStatus(@Param("booker") Long bookerId, @Param("status") BookingStatus status,
+                                                Pageable pageable);
 
     List<Booking> findAllByItemId(Long itemId, Sort sort);
 
-    @Query(value = "SELECT b FROM Booking b where b.item = :item and b.start < now() " +
-            "and b.end > now()")
-    List<Booking> findAllCurrentByItem(@Param("item") Item item, Pageable pageable);
+    @Query(BOOKING_DTO + "where i.owner.id = :owner")
+    List<BookingDto> findAllByItemOwnerId(@Param("owner") Long ownerId, Pageable pageable);
+
+    @Query(BOOKING_DTO + "where i.owner.id = :owner and b.start < now() and b.end > now()")
+    List<BookingDto> findAllCurrentByOwner(@Param("owner") Long owner, Pageable pageable);
+
+    @Query(BOOKING_DTO + "where i.owner.id = :owner and b.end < :date")
+    List<BookingDto> findAllByItemOwnerIdAndEndBefore(@Param("owner") Long ownerId, @Param("date") LocalDateTime date,
+                                                      Pageable pageable);
+
+    @Query(BOOKING_DTO + "where i.owner.id = :owner and b.start > :date")
+    List<BookingDto> findAllByItemOwnerIdAndStartAfter(@Param("owner") Long ownerId, @Param("date") LocalDateTime date,
+                                                       Pageable pageable);
+
+    @Query(BOOKING_DTO + "where i.owner.id = :owner and b.status = :status")
+    List<BookingDto> findAllByItemOwnerIdAndStatus(@Param("owner") Long ownerId, @Param("status") BookingStatus status,
+                                                   Pageable pageable);
+
+    Optional<Booking> findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(Long itemId, BookingStatus status,
+                                                                               LocalDateTime date);
+
+    Optional<Booking> findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(Long itemId, BookingStatus status,
+                                                                             LocalDateTime date);
+
+    /**
+     * Число начавшихся бронирований вещи: последнее и следующее бронирования в карточке меняются,
+     * когда начинается очередное бронирование, даже если проекция в вещи ещё не сдвинута
+     */
+    long countByItemIdAndStatusAndStartBefore(Long itemId, BookingStatus status, LocalDateTime date);
+
+    long countByItemOwnerIdAndStatusAndStartBefore(Long ownerId, BookingStatus status, LocalDateTime date);
+
+    List<Booking> findAllByItemIdAndStatusIn(Long itemId, Collection<BookingStatus> statuses);
+
+    /**
+     * Есть ли у вещи бронирования с указанными статусами, пересекающиеся с интервалом [start, end)
+     */
+    boolean existsByItemIdAndStatusInAndStartBeforeAndEndAfter(Long itemId, Collection<BookingStatus> statuses,
+                                                               LocalDateTime end, LocalDateTime start);
+
+    /**
+     * Бронирования вещей с указанными статусами, пересекающиеся с интервалом [start, end)
+     */
+    List<Booking> findAllByItemIdInAndStatusInAndStartBeforeAndEndAfter(Collection<Long> itemIds,
+                                                                       Collection<BookingStatus> statuses,
+                                                                       LocalDateTime end, LocalDateTime start);
+
+    boolean existsByItemIdAndIdNotAndStatusAndStartBeforeAndEndAfter(Long itemId, Long bookingId, BookingStatus status,
+                                                                     LocalDateTime end, LocalDateTime start);
+
+    @Query(BOOKING_DTO + "where b.booker.id = :booker " + SEEK_BY_START)
+    List<BookingDto> seekAllByBooker(@Param("booker") Long booker, @Param("start") LocalDateTime start,
+                                     @Param("id") Long id, Pageable pageable);
+
+    @Query(BOOKING_DTO + "where b.booker.id = :booker and b.start < now() and b.end > now() " +
+            "and b.id > :id")
+    List<BookingDto> seekCurrentByBooker(@Param("booker") Long booker, @Param("id") Long id, Pageable pageable);
+
+    @Query(BOOKING_DTO + "where b.booker.id = :booker and b.end < :date " + SEEK_BY_START)
+    List<BookingDto> seekPastByBooker(@Param("booker") Long booker, @Param("date") LocalDateTime date,
+                                      @Param("start") LocalDateTime start, @Param("id") Long id, Pageable pageable);
+
+    @Query(BOOKING_DTO + "where b.booker.id = :booker and b.start > :date " + SEEK_BY_START)
+    List<BookingDto> seekFutureByBooker(@Param("booker") Long booker, @Param("date") LocalDateTime date,
+                                        @Param("start") LocalDateTime start, @Param("id") Long id, Pageable pageable);
+
+    @Query(BOOKING_DTO + "where b.booker.id = :booker and b.status = :status " + SEEK_BY_START)
+    List<BookingDto> seekByBookerAndStatus(@Param("booker") Long booker, @Param("status") BookingStatus status,
+                                           @Param("start") LocalDateTime start, @Param("id") Long id,
+                                           Pageable pageable);
+
+    @Query(BOOKING_DTO + "where i.owner.id = :owner " + SEEK_BY_START)
+    List<BookingDto> seekAllByOwner(@Param("owner") Long owner, @Param("start") LocalDateTime start,
+                                    @Param("id") Long id, Pageable pageable);
 
-    List<Booking> findAllByItemIdAndEndBefore(Long itemId, LocalDateTime date, Pageable pageable);
+    @Query(BOOKING_DTO + "where i.owner.id = :owner and b.start < now() and b.end > now() " +
+            SEEK_BY_START)
+    List<BookingDto> seekCurrentByOwner(@Param("owner") Long owner, @Param("start") LocalDateTime start,
+                                        @Param("id") Long id, Pageable pageable);
 
-    List<Booking> findAllByItemIdAndStartAfter(Long itemId, LocalDateTime date, Pageable pageable);
+    @Query(BOOKING_DTO + "where i.owner.id = :owner and b.end < :date " + SEEK_BY_START)
+    List<BookingDto> seekPastByOwner(@Param("owner") Long owner, @Param("date") LocalDateTime date,
+                                     @Param("start") LocalDateTime start, @Param("id") Long id, Pageable pageable);
 
-    List<Booking> findBookingByItemIdAndStatus(Long itemId, BookingStatus status, Pageable pageable);
+    @Query(BOOKING_DTO + "where i.owner.id = :owner and b.start > :date " + SEEK_BY_START)
+    List<BookingDto> seekFutureByOwner(@Param("owner") Long owner, @Param("date") LocalDateTime date,
+                                       @Param("start") LocalDateTime start, @Param("id") Long id, Pageable pageable);
 
-    List<Booking> findBookingByItemIn(List<Item> items, Sort sort);
+    @Query(BOOKING_DTO + "where i.owner.id = :owner and b.status = :status " + SEEK_BY_START)
+    List<BookingDto> seekByOwnerAndStatus(@Param("owner") Long owner, @Param("status") BookingStatus status,
+                                          @Param("start") LocalDateTime start, @Param("id") Long id, Pageable pageable);
 
 }
@@ -5,8 +5,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
@@ -14,29 +16,46 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.etag.EntityTag;
+import ru.practicum.shareit.exception.BookingConflictException;
 import ru.practicum.shareit.exception.BookingNotFoundException;
 import ru.practicum.shareit.exception.BookingValidationException;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.availability.ItemAvailabilityIndex;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingService;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class BookingService {
 
+    /**
+     * Статусы бронирований, занимающих вещь на своё время
+     */
+    public static final Set<BookingStatus> ACTIVE_STATUSES = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
     private final BookingRepository bookingRepository;
 
-    private final UserRepository userRepository;
+    private final UserCache userCache;
 
     private final ItemRepository itemRepository;
 
@@ -46,29 +65,124 @@ public class BookingService {
 
     private final ItemMapper itemMapper;
 
+    private final ItemBookingService itemBookingService;
+
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+
 
     @Transactional
     public BookingDto createBooking(Long userId, BookingRequestDto bookingRequestDto) {
         final long itemId = bookingRequestDto.getItemId();
         User user = findUser(userId);
         log.info("User {}", user);
-        Item item = itemRepository.findById(itemId).orElseThrow(() -> new ItemNotFoundException(itemId));
+        Item item = itemRepository.findByIdForUpdate(itemId).orElseThrow(() -> new ItemNotFoundException(itemId));
+        checkBookable(userId, item);
+        if (bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(itemId, ACTIVE_STATUSES,
+                bookingRequestDto.getEnd(), bookingRequestDto.getStart())) {
+            log.error("Item {} is already booked from {} to {}", itemId, bookingRequestDto.getStart(),
+                    bookingRequestDto.getEnd());
+            throw new BookingConflictException(itemId);
+        }
+        BookingDto bookingClientDto = toNewBooking(user, item, bookingRequestDto);
+
+        Booking booking = toBookingEntity(bookingClientDto, user, item);
+        bookingClientDto.setId(bookingRepository.save(booking).getId());
+        itemAvailabilityIndex.invalidate(itemId);
+        return bookingClientDto;
+    }
+
+    /**
+     * Пакетное создание бронирований: пользователь, вещи и их активные бронирования в общем интервале пакета
+     * загружаются один раз на весь пакет, ошибки проверки возвращаются по каждому бронированию отдельно.
+     */
+    @Transactional
+    public List<BookingBatchResultDto> createBookings(Long userId, List<BookingRequestDto> bookingRequestDtos) {
+        User user = findUser(userId);
+        Set<Long> itemIds = bookingRequestDtos.stream().map(BookingRequestDto::getItemId).collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllByIdForUpdate(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, List<Booking>> active = findActiveBookings(items.keySet(), bookingRequestDtos);
+        List<BookingBatchResultDto> results = new ArrayList<>();
+        List<BookingDto> created = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>();
+        Map<Long, List<BookingRequestDto>> accepted = new HashMap<>();
+        for (int i = 0; i < bookingRequestDtos.size(); i++) {
+            BookingRequestDto bookingRequestDto = bookingRequestDtos.get(i);
+            final long itemId = bookingRequestDto.getItemId();
+            try {
+                Item item = items.get(itemId);
+                if (item == null) {
+                    throw new ItemNotFoundException(itemId);
+                }
+                checkBookable(userId, item);
+                if (active.getOrDefault(itemId, List.of()).stream()
+                        .anyMatch(other -> other.getStart().isBefore(bookingRequestDto.getEnd())
+                                && other.getEnd().isAfter(bookingRequestDto.getStart()))) {
+                    throw new BookingConflictException(itemId);
+                }
+                List<BookingRequestDto> itemAccepted = accepted.computeIfAbsent(itemId, id -> new ArrayList<>());
+                // бронирования пакета ещё не сохранены, поэтому пересечения между ними проверяются здесь
+                if (itemAccepted.stream().anyMatch(other -> other.getStart().isBefore(bookingRequestDto.getEnd())
+                        && other.getEnd().isAfter(bookingRequestDto.getStart()))) {
+                    throw new BookingConflictException(itemId);
+                }
+                itemAccepted.add(bookingRequestDto);
+                BookingDto bookingClientDto = toNewBooking(user, item, bookingRequestDto);
+                created.add(bookingClientDto);
+                bookings.add(toBookingEntity(bookingClientDto, user, item));
+                results.add(new BookingBatchResultDto(i, HttpStatus.CREATED.value(), bookingClientDto, null));
+            } catch (ItemNotFoundException e) {
+                results.add(new BookingBatchResultDto(i, HttpStatus.NOT_FOUND.value(), null, "Товар не найден"));
+            } catch (BookingValidationException e) {
+                results.add(new BookingBatchResultDto(i, HttpStatus.BAD_REQUEST.value(), null, "Ошибка валидации"));
+            } catch (BookingConflictException e) {
+                results.add(new BookingBatchResultDto(i, HttpStatus.CONFLICT.value(), null,
+                        "Вещь уже забронирована на это время"));
+            }
+        }
+        List<Booking> saved = bookingRepository.saveAll(bookings);
+        accepted.keySet().forEach(itemAvailabilityIndex::invalidate);
+        for (int i = 0; i < saved.size(); i++) {
+            created.get(i).setId(saved.get(i).getId());
+        }
+        log.info("Created {} of {} bookings", saved.size(), bookingRequestDtos.size());
+        return results;
+    }
+
+    /**
+     * Активные бронирования вещей пакета, пересекающиеся с интервалом от самого раннего начала
+     * до самого позднего окончания в пакете, по id вещи
+     */
+    private Map<Long, List<Booking>> findActiveBookings(Set<Long> itemIds, List<BookingRequestDto> bookingRequestDtos) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        LocalDateTime start = bookingRequestDtos.stream().map(BookingRequestDto::getStart)
+                .min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime end = bookingRequestDtos.stream().map(BookingRequestDto::getEnd)
+                .max(Comparator.naturalOrder()).orElseThrow();
+        return bookingRepository.findAllByItemIdInAndStatusInAndStartBeforeAndEndAfter(itemIds, ACTIVE_STATUSES,
+                        end, start).stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+    }
+
+    private void checkBookable(Long userId, Item item) {
         if (userId == item.getOwner().getId()) {
             log.error("Owner is not booking item");
-            throw new ItemNotFoundException(itemId);
+            throw new ItemNotFoundException(item.getId());
         }
         log.info("Item {}", item);
         if (!item.getAvailable()) {
             log.error("Available = false");
             throw new BookingValidationException();
         }
+    }
+
+    private BookingDto toNewBooking(User user, Item item, BookingRequestDto bookingRequestDto) {
         BookingDto bookingClientDto = bookingMapper.toBookingDto(bookingRequestDto);
         bookingClientDto.setStatus(BookingStatus.WAITING);
         bookingClientDto.setBooker(userMapper.toClientDto(user));
         bookingClientDto.setItem(itemMapper.toClientDto(item));
-
-        Booking booking = bookingMapper.fromDto(bookingClientDto);
-        bookingClientDto.setId(bookingRepository.save(booking).getId());
         return bookingClientDto;
     }
 
@@ -86,15 +200,37 @@ public class BookingService {
                 log.error("Status approved !!!");
                 throw new BookingValidationException();
             }
+            itemRepository.findByIdForUpdate(item.getId());
+            if (bookingRepository.existsByItemIdAndIdNotAndStatusAndStartBeforeAndEndAfter(item.getId(), bookingId,
+                    BookingStatus.APPROVED, booking.getEnd(), booking.getStart())) {
+                log.error("Item {} already has an approved booking from {} to {}", item.getId(), booking.getStart(),
+                        booking.getEnd());
+                throw new BookingConflictException(item.getId());
+            }
             booking.setStatus(BookingStatus.APPROVED);
         } else {
             booking.setStatus(BookingStatus.REJECTED);
         }
         bookingRepository.save(booking);
+        itemBookingService.refresh(item);
+        itemAvailabilityIndex.invalidate(item.getId());
 
         return bookingMapper.toDto(booking);
     }
 
+    /**
+     * ETag бронирования по версиям строк; null, если бронирования нет или оно недоступно пользователю
+     */
+    @Transactional(readOnly = true)
+    public String getBookingTag(Long userId, Long bookingId) {
+        findUser(userId);
+        return bookingRepository.findVersionById(bookingId)
+                .filter(booking -> booking.getOwnerId() == userId || booking.getBookerId() == userId)
+                .map(booking -> EntityTag.of("booking", bookingId, booking.getVersion(), booking.getItemVersion(),
+                        booking.getBookerVersion()))
+                .orElse(null);
+    }
+
     @Transactional(readOnly = true)
     public BookingDto getBooking(Long userId, Long bookingId) {
         findUser(userId);
@@ -111,20 +247,30 @@ public class BookingService {
     @Transactional(readOnly = true)
     public List<BookingDto> getBookingsForCurrentUser(Long userId, BookingState state, Integer from, Integer size) {
         User user = findUser(userId);
-        return bookingMapper.toListDto(getBookings(state, user, from / size, size));
+        return getBookings(state, user, from / size, size);
     }
 
     @Transactional(readOnly = true)
     public List<BookingDto> getBookingsForAllItems(Long userId, BookingState state, Integer from, Integer size) {
         User owner = findUser(userId);
-        List<Item> itemList = itemRepository.findAllByOwnerId(owner.getId());
-        List<Booking> bookings = getBookingsByItem(state, itemList, from / size, size);
-        return bookingMapper.toListDto(bookings);
+        return getBookingsByOwner(state, owner, from / size, size);
     }
 
 
-    private List<Booking> getBookings(BookingState state, User booker, Integer from, Integer size) {
-        Sort sort = Sort.by("start").descending();
+    @Transactional(readOnly = true)
+    public List<BookingDto> getBookingsForCurrentUserAfter(Long userId, BookingState state, PageCursor after, Integer size) {
+        User user = findUser(userId);
+        return seekBookings(state, user, after, size);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BookingDto> getBookingsForAllItemsAfter(Long userId, BookingState state, PageCursor after, Integer size) {
+        User owner = findUser(userId);
+        return seekBookingsByOwner(state, owner, after, size);
+    }
+
+    private List<BookingDto> getBookings(BookingState state, User booker, Integer from, Integer size) {
+        Sort sort = Sort.by("start").descending().and(Sort.by("id").descending());
         Pageable sortedByStart = PageRequest.of(from, size, sort);
         LocalDateTime date = LocalDateTime.now();
         if (BookingState.ALL.equals(state)) {
@@ -143,35 +289,87 @@ public class BookingService {
         }
     }
 
-    private List<Booking> getBookingsByItem(BookingState state, List<Item> items, Integer from, Integer size) {
-        List<Booking> bookings = new ArrayList<>();
-        Sort sort = Sort.by("start").descending();
+    /**
+     * Бронирования всех вещей владельца одним запросом на состояние:
+     * сортировка и постраничный вывод выполняются в БД по всей выборке, а не по каждой вещи отдельно.
+     */
+    private List<BookingDto> getBookingsByOwner(BookingState state, User owner, Integer from, Integer size) {
+        Sort sort = Sort.by("start").descending().and(Sort.by("id").descending());
         Pageable sortedByStart = PageRequest.of(from, size, sort);
         LocalDateTime date = LocalDateTime.now();
-        for (Item item : items) {
-            if (BookingState.ALL.equals(state)) {
-                bookings.addAll(bookingRepository.findAllByItemId(item.getId(), sortedByStart));
-            }
-            if (BookingState.CURRENT.equals(state)) {
-                bookings.addAll(bookingRepository.findAllCurrentByItem(item, sortedByStart));
-            }
-            if (BookingState.PAST.equals(state)) {
-                bookings.addAll(bookingRepository.findAllByItemIdAndEndBefore(item.getId(), date, sortedByStart));
-            }
-            if (BookingState.FUTURE.equals(state)) {
-                bookings.addAll(bookingRepository.findAllByItemIdAndStartAfter(item.getId(), date, sortedByStart));
-            }
-            if (BookingState.WAITING.equals(state) || BookingState.REJECTED.equals(state)) {
+        if (BookingState.ALL.equals(state)) {
+            return bookingRepository.findAllByItemOwnerId(owner.getId(), sortedByStart);
+        } else if (BookingState.CURRENT.equals(state)) {
+            return bookingRepository.findAllCurrentByOwner(owner.getId(), sortedByStart);
+        } else if (BookingState.PAST.equals(state)) {
+            return bookingRepository.findAllByItemOwnerIdAndEndBefore(owner.getId(), date, sortedByStart);
+        } else if (BookingState.FUTURE.equals(state)) {
+            return bookingRepository.findAllByItemOwnerIdAndStartAfter(owner.getId(), date, sortedByStart);
+        } else {
+            return bookingRepository.findAllByItemOwnerIdAndStatus(owner.getId(), BookingStatus.valueOf(state.name()), sortedByStart);
+        }
+    }
 
-                bookings.addAll(bookingRepository.findBookingByItemIdAndStatus(item.getId(),
-                        BookingStatus.valueOf(state.name()), sortedByStart));
-            }
+
+    /**
+     * Страница бронирований пользователя, следующая за курсором: выборка по ключу (start, id) вместо OFFSET.
+     */
+    private List<BookingDto> seekBookings(BookingState state, User booker, PageCursor after, Integer size) {
+        after.requireSortKey();
+        Pageable sortedByStart = PageRequest.of(0, size, Sort.by("start").descending().and(Sort.by("id").descending()));
+        LocalDateTime date = LocalDateTime.now();
+        if (BookingState.ALL.equals(state)) {
+            return bookingRepository.seekAllByBooker(booker.getId(), after.getSortKey(), after.getId(), sortedByStart);
+        } else if (BookingState.CURRENT.equals(state)) {
+            Pageable sortedById = PageRequest.of(0, size, Sort.by("id").ascending());
+            return bookingRepository.seekCurrentByBooker(booker.getId(), after.getId(), sortedById);
+        } else if (BookingState.PAST.equals(state)) {
+            return bookingRepository.seekPastByBooker(booker.getId(), date, after.getSortKey(), after.getId(),
+                    sortedByStart);
+        } else if (BookingState.FUTURE.equals(state)) {
+            return bookingRepository.seekFutureByBooker(booker.getId(), date, after.getSortKey(), after.getId(),
+                    sortedByStart);
+        } else {
+            return bookingRepository.seekByBookerAndStatus(booker.getId(), BookingStatus.valueOf(state.name()),
+                    after.getSortKey(), after.getId(), sortedByStart);
+        }
+    }
+
+    private List<BookingDto> seekBookingsByOwner(BookingState state, User owner, PageCursor after, Integer size) {
+        after.requireSortKey();
+        Pageable sortedByStart = PageRequest.of(0, size, Sort.by("start").descending().and(Sort.by("id").descending()));
+        LocalDateTime date = LocalDateTime.now();
+        if (BookingState.ALL.equals(state)) {
+            return bookingRepository.seekAllByOwner(owner.getId(), after.getSortKey(), after.getId(), sortedByStart);
+        } else if (BookingState.CURRENT.equals(state)) {
+            return bookingRepository.seekCurrentByOwner(owner.getId(), after.getSortKey(), after.getId(),
+                    sortedByStart);
+        } else if (BookingState.PAST.equals(state)) {
+            return bookingRepository.seekPastByOwner(owner.getId(), date, after.getSortKey(), after.getId(),
+                    sortedByStart);
+        } else if (BookingState.FUTURE.equals(state)) {
+            return bookingRepository.seekFutureByOwner(owner.getId(), date, after.getSortKey(), after.getId(),
+                    sortedByStart);
+        } else {
+            return bookingRepository.seekByOwnerAndStatus(owner.getId(), BookingStatus.valueOf(state.name()),
+                    after.getSortKey(), after.getId(), sortedByStart);
         }
-        return bookings;
     }
 
+    /**
+     * Новое бронирование ссылается на вещь, загруженную и заблокированную в этой транзакции, а не на собранную
+     * маппером заготовку: последующие чтения в той же транзакции видят владельца вещи.
+     * Автор бронирования — отсоединённый снимок из {@link UserCache}: он не загружен в эту сессию и не заблокирован,
+     * при сохранении из него берётся только id
+     */
+    private Booking toBookingEntity(BookingDto bookingDto, User booker, Item item) {
+        Booking booking = bookingMapper.fromNewDto(bookingDto);
+        booking.setItem(item);
+        booking.setBooker(booker);
+        return booking;
+    }
 
     private User findUser(Long userId) {
-        return userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        return userCache.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
     }
 }
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Кэш с защитой от возврата устаревших записей. Сброс ключа увеличивает его поколение, а значение,
+ * загруженное из базы, кладётся в кэш, только если поколение не изменилось с начала загрузки.
+ * Поколения хранятся по полосам: сброс одного ключа может лишь отменить запись соседнего.
+ */
+@Slf4j
+public class GenerationGuardedCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Cache cache;
+
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public GenerationGuardedCache(Cache cache) {
+        this.cache = cache;
+    }
+
+    public <T> T get(long key, Class<T> type) {
+        return cache.get(key, type);
+    }
+
+    /**
+     * Поколение ключа: читается до загрузки значения из базы и передаётся в {@link #putIfUnchanged}
+     */
+    public long generation(long key) {
+        return generations.get(stripe(key));
+    }
+
+    /**
+     * Кладёт значение, если с начала его загрузки ключ не сбрасывался. Повторная проверка после записи
+     * убирает значение, если сброс произошёл между проверкой и записью
+     */
+    public void putIfUnchanged(long key, long generation, Object value) {
+        int stripe = stripe(key);
+        if (generations.get(stripe) != generation) {
+            log.debug("Skip stale {} entry {}", cache.getName(), key);
+            return;
+        }
+        cache.put(key, value);
+        if (generations.get(stripe) != generation) {
+            cache.evict(key);
+        }
+    }
+
+    /**
+     * Удаление записи без смены поколения, например истёкшей
+     */
+    public void evict(long key) {
+        cache.evict(key);
+    }
+
+    /**
+     * Сброс ключа после фиксации текущей транзакции, без транзакции — сразу
+     */
+    public void invalidateAfterCommit(long key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(key);
+                }
+            });
+        } else {
+            invalidate(key);
+        }
+    }
+
+    private void invalidate(long key) {
+        log.info("Evict {} entry {}", cache.getName(), key);
+        generations.incrementAndGet(stripe(key));
+        cache.evict(key);
+    }
+
+    private static int stripe(long key) {
+        return (int) Math.floorMod(key, (long) GENERATION_STRIPES);
+    }
+}
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.comment.model;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -10,18 +12,26 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @Table(name = "comments")
+@NamedEntityGraph(name = Comment.WITH_AUTHOR, attributeNodes = @NamedAttributeNode("author"))
 public class Comment {
 
+    public static final String WITH_AUTHOR = "Comment.author";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comments_seq")
+    @SequenceGenerator(name = "comments_seq", sequenceName = "comments_seq", allocationSize = 50)
     private long id;
     @Column(name = "text")
     private String text;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Item item;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User author;
     @Column(name = "created")
     private LocalDateTime created;
@@ -1,8 +1,12 @@
 package ru.practicum.shareit.comment.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.etag.VersionSummary;
 import ru.practicum.shareit.item.model.Item;
 
 import java.util.List;
@@ -10,7 +14,27 @@ import java.util.List;
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
+    @EntityGraph(Comment.WITH_AUTHOR)
     List<Comment> findAllByItem(Item item);
 
+    @EntityGraph(Comment.WITH_AUTHOR)
     List<Comment> findAllByItemIn(List<Item> items);
+
+    /**
+     * Вещи с комментариями автора: их карточки содержат имя автора
+     */
+    @Query("SELECT DISTINCT c.item.id FROM Comment c WHERE c.author.id = :author")
+    List<Long> findItemIdsByAuthorId(@Param("author") Long authorId);
+
+    /**
+     * Сводка комментариев вещи по версиям их авторов: в карточке есть имя автора, и ETag должен смениться
+     * при его изменении
+     */
+    @Query("SELECT COUNT(c) AS total, COALESCE(SUM(u.version), 0) AS versions, COALESCE(MAX(c.id), 0) AS maxId " +
+            "FROM Comment c JOIN c.author u WHERE c.item.id = :item")
+    VersionSummary summarizeAuthorVersionsByItemId(@Param("item") Long itemId);
+
+    @Query("SELECT COUNT(c) AS total, COALESCE(SUM(u.version), 0) AS versions, COALESCE(MAX(c.id), 0) AS maxId " +
+            "FROM Comment c JOIN c.author u WHERE c.item.owner.id = :owner")
+    VersionSummary summarizeAuthorVersionsByItemOwnerId(@Param("owner") Long ownerId);
 }
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.etag;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Значения ETag ответов сервера. Строятся из версий строк, поэтому проверка If-None-Match
+ * не требует загрузки сущностей и сборки ответа.
+ */
+public final class EntityTag {
+
+    private EntityTag() {
+    }
+
+    public static String of(Object... parts) {
+        return Arrays.stream(parts)
+                .map(String::valueOf)
+                .collect(Collectors.joining("-"));
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.etag;
+
+/**
+ * Сводка версий набора строк для ETag списка: число строк, сумма версий и наибольший id.
+ * Меняется при добавлении, удалении и любом изменении строки набора.
+ */
+public interface VersionSummary {
+
+    long getTotal();
+
+    long getVersions();
+
+    long getMaxId();
+
+    default String toTag() {
+        return EntityTag.of(getTotal(), getVersions(), getMaxId());
+    }
+}
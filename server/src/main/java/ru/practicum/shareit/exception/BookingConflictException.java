@@ -0,0 +1,14 @@
+package ru.practicum.shareit.exception;
+
+public class BookingConflictException extends RuntimeException {
+
+    private long itemId;
+
+    public BookingConflictException(long itemId) {
+        this.itemId = itemId;
+    }
+
+    public long getItemId() {
+        return this.itemId;
+    }
+}
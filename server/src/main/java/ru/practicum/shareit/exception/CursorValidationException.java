@@ -0,0 +1,12 @@
+package ru.practicum.shareit.exception;
+
+/**
+ * Курсор страницы не подходит списку: например, курсор без значения поля сортировки для списка,
+ * отсортированного по времени
+ */
+public class CursorValidationException extends RuntimeException {
+
+    public CursorValidationException(String message) {
+        super(message);
+    }
+}
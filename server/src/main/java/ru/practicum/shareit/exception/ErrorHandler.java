@@ -3,6 +3,7 @@ package ru.practicum.shareit.exception;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -43,6 +44,20 @@ public class ErrorHandler {
         return new ErrorDto("Запрос на добавление товара/вещи не найден");
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorDto handleBookingConflict(BookingConflictException e) {
+        log.error("Item with id {} is already booked for this time", e.getItemId());
+        return new ErrorDto("Вещь уже забронирована на это время");
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorDto handleOptimisticLock(ObjectOptimisticLockingFailureException e) {
+        log.error("Concurrent update of {} with id {}", e.getPersistentClassName(), e.getIdentifier());
+        return new ErrorDto("Данные изменены другим запросом, повторите попытку");
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.CONFLICT)
     public ErrorDto handleUserNotFound(ValidationException e) {
@@ -72,6 +87,13 @@ public class ErrorHandler {
         return new ErrorDto("Ошибка валидации");
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorDto handleCursorValidationException(CursorValidationException e) {
+        log.error(e.getMessage());
+        return new ErrorDto("Ошибка валидации");
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorDto handleUserNotFound(BookingException e) {
@@ -1,14 +1,21 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.exception.BookingValidationException;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBooking;
+import ru.practicum.shareit.item.service.ItemAvailabilityService;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -21,6 +28,8 @@ public class ItemController {
 
     private final ItemService itemService;
 
+    private final ItemAvailabilityService itemAvailabilityService;
+
     @PostMapping
     public ResponseEntity<ItemDto> createItem(@RequestHeader("X-Sharer-User-Id") long userId,
                                               @RequestBody ItemDto itemDto) {
@@ -37,23 +46,49 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ResponseEntity<ItemWithBooking> getItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                   @PathVariable long itemId) {
+                                                   @PathVariable long itemId, WebRequest request) {
+        if (request.checkNotModified(itemService.getItemTag(itemId, userId))) {
+            return null;
+        }
         return ResponseEntity.ok(itemService.getItem(itemId, userId));
     }
 
+    @GetMapping("/{itemId}/availability")
+    public List<AvailabilityIntervalDto> getAvailability(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                         @PathVariable long itemId,
+                                                         @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                         @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemAvailabilityService.getAvailability(userId, itemId, from, to);
+    }
+
     @GetMapping
-    public List<ItemWithBooking> getAllItems(@RequestParam(name = "from", defaultValue = "0") Integer from,
-                                             @RequestParam(name = "size", defaultValue = "10") Integer size,
-                                             @RequestHeader("X-Sharer-User-Id") long userId) {
-        return itemService.getAllItems(userId, from, size);
+    public ResponseEntity<List<ItemWithBooking>> getAllItems(@RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                             @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                             @RequestHeader("X-Sharer-User-Id") long userId,
+                                                             @RequestParam(name = "after", required = false) PageCursor after,
+                                                             WebRequest request) {
+        if (request.checkNotModified(itemService.getAllItemsTag(userId))) {
+            return null;
+        }
+        List<ItemWithBooking> items = after == null
+                ? itemService.getAllItems(userId, from, size)
+                : itemService.getAllItemsAfter(userId, after, size);
+        return PageCursor.page(items, size, item -> new PageCursor(null, item.getId()));
     }
 
     @GetMapping("/search")
     public List<ItemDto> searchItems(@RequestParam(name = "from", defaultValue = "0") Integer from,
                                      @RequestParam(name = "size", defaultValue = "10") Integer size,
                                      @RequestParam(name = "text") String text,
-                                     @RequestHeader("X-Sharer-User-Id") long userId) {
-
+                                     @RequestHeader("X-Sharer-User-Id") long userId,
+                                     @RequestParam(name = "start", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                     @RequestParam(name = "end", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        if (start != null || end != null) {
+            if (start == null || end == null) {
+                throw new BookingValidationException();
+            }
+            return itemService.searchAvailableItems(text, userId, start, end, from, size);
+        }
         return itemService.searchItems(text, userId, from, size);
     }
 
@@ -0,0 +1,105 @@
+package ru.practicum.shareit.item.availability;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.cache.GenerationGuardedCache;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Календарь занятости вещей по часовым слотам. Карта слотов вещи строится по её ожидающим
+ * и подтверждённым бронированиям при первом запросе и сбрасывается после фиксации каждого изменения
+ * бронирований вещи.
+ * Слот занят, если его задевает хотя бы одно бронирование.
+ */
+@Slf4j
+@Component
+public class ItemAvailabilityIndex {
+
+    public static final String AVAILABILITY = "availability";
+
+    private static final long SLOT_SECONDS = 3600;
+
+    private final GenerationGuardedCache cache;
+
+    private final BookingRepository bookingRepository;
+
+    public ItemAvailabilityIndex(CacheManager cacheManager, BookingRepository bookingRepository) {
+        this.cache = new GenerationGuardedCache(cacheManager.getCache(AVAILABILITY));
+        this.bookingRepository = bookingRepository;
+    }
+
+    /**
+     * Свободные и занятые интервалы вещи в [from, to), границы внутри периода выровнены по часам
+     */
+    public List<AvailabilityIntervalDto> getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        SlotBitmap busy = get(itemId);
+        List<AvailabilityIntervalDto> intervals = new ArrayList<>();
+        int end = slotCeil(to);
+        int slot = slotFloor(from);
+        LocalDateTime start = from;
+        while (slot < end) {
+            boolean available = !busy.get(slot);
+            int next = busy.next(slot, end, available);
+            LocalDateTime intervalEnd = next >= end ? to : toTime(next);
+            intervals.add(new AvailabilityIntervalDto(start, intervalEnd, available));
+            start = intervalEnd;
+            slot = next;
+        }
+        return intervals;
+    }
+
+    /**
+     * Сброс карты вещи после фиксации транзакции, без транзакции — сразу. До фиксации чтения видят
+     * прежние бронирования, поэтому прежняя карта остаётся верной
+     */
+    public void invalidate(long itemId) {
+        cache.invalidateAfterCommit(itemId);
+    }
+
+    /**
+     * Карта из кэша или из базы. Построенная карта кладётся в кэш, только если за время построения
+     * вещь не сбрасывалась: иначе она могла быть прочитана до фиксации бронирования
+     */
+    private SlotBitmap get(long itemId) {
+        SlotBitmap busy = cache.get(itemId, SlotBitmap.class);
+        if (busy != null) {
+            return busy;
+        }
+        long generation = cache.generation(itemId);
+        busy = load(itemId);
+        cache.putIfUnchanged(itemId, generation, busy);
+        return busy;
+    }
+
+    private SlotBitmap load(long itemId) {
+        SlotBitmap busy = new SlotBitmap();
+        List<Booking> bookings = bookingRepository.findAllByItemIdAndStatusIn(itemId, BookingService.ACTIVE_STATUSES);
+        for (Booking booking : bookings) {
+            busy.set(slotFloor(booking.getStart()), slotCeil(booking.getEnd()));
+        }
+        log.info("Availability of item {} built from {} bookings, {} chunks", itemId, bookings.size(), busy.chunks());
+        return busy;
+    }
+
+    private static int slotFloor(LocalDateTime date) {
+        return (int) Math.floorDiv(date.toEpochSecond(ZoneOffset.UTC), SLOT_SECONDS);
+    }
+
+    private static int slotCeil(LocalDateTime date) {
+        long seconds = date.toEpochSecond(ZoneOffset.UTC) + (date.getNano() > 0 ? 1 : 0);
+        return (int) Math.floorDiv(seconds + SLOT_SECONDS - 1, SLOT_SECONDS);
+    }
+
+    private static LocalDateTime toTime(int slot) {
+        return LocalDateTime.ofEpochSecond(slot * SLOT_SECONDS, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.item.availability;
+
+import java.util.TreeMap;
+
+/**
+ * Битовая карта занятых часовых слотов вещи. Слоты разбиты на блоки по 4096 часов (~170 дней),
+ * память выделяется только под блоки, в которых есть хотя бы одно бронирование.
+ * После заполнения карта не меняется и читается без блокировок.
+ */
+final class SlotBitmap {
+
+    private static final int CHUNK_BITS = 12;
+
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final int WORDS = CHUNK_SIZE / Long.SIZE;
+
+    private final TreeMap<Integer, long[]> chunks = new TreeMap<>();
+
+    /**
+     * Отметить слоты [from, to) занятыми
+     */
+    void set(int from, int to) {
+        int slot = from;
+        while (slot < to) {
+            int key = slot >> CHUNK_BITS;
+            long[] words = chunks.computeIfAbsent(key, k -> new long[WORDS]);
+            int chunkEnd = Math.min(to, (key + 1) << CHUNK_BITS);
+            for (; slot < chunkEnd; slot++) {
+                words[(slot & CHUNK_MASK) >>> 6] |= 1L << (slot & 63);
+            }
+        }
+    }
+
+    boolean get(int slot) {
+        long[] words = chunks.get(slot >> CHUNK_BITS);
+        return words != null && (words[(slot & CHUNK_MASK) >>> 6] & (1L << (slot & 63))) != 0;
+    }
+
+    /**
+     * Первый слот из [from, to) с указанным состоянием или to, если такого нет
+     */
+    int next(int from, int to, boolean busy) {
+        int slot = from;
+        while (slot < to) {
+            int key = slot >> CHUNK_BITS;
+            long[] words = chunks.get(key);
+            if (words == null) {
+                if (!busy) {
+                    return slot;
+                }
+                Integer nextKey = chunks.higherKey(key);
+                if (nextKey == null) {
+                    return to;
+                }
+                slot = nextKey << CHUNK_BITS;
+                continue;
+            }
+            int offset = slot & CHUNK_MASK;
+            for (int w = offset >>> 6; w < WORDS; w++) {
+                long word = busy ? words[w] : ~words[w];
+                if (w == offset >>> 6) {
+                    word &= -1L << (offset & 63);
+                }
+                if (word != 0) {
+                    return Math.min(to, (key << CHUNK_BITS) + (w << 6) + Long.numberOfTrailingZeros(word));
+                }
+            }
+            slot = (key + 1) << CHUNK_BITS;
+        }
+        return to;
+    }
+
+    /**
+     * Число блоков, под которые выделена память
+     */
+    int chunks() {
+        return chunks.size();
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интервал календаря доступности вещи
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityIntervalDto {
+    /**
+     * Начало интервала
+     */
+    private LocalDateTime start;
+    /**
+     * Конец интервала (не включается)
+     */
+    private LocalDateTime end;
+    /**
+     * Свободна ли вещь весь интервал
+     */
+    private boolean available;
+}
@@ -1,12 +1,16 @@
 package ru.practicum.shareit.item.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 
 /**
  * Модель запроса товара/вещи
  */
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class ItemDto {
 
     private Long id;
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.dto;
+
+/**
+ * Версия вещи и её владелец для ETag карточки вещи
+ */
+public interface ItemVersion {
+
+    Long getId();
+
+    long getVersion();
+
+    long getOwnerId();
+}
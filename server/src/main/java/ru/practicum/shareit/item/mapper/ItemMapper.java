@@ -18,12 +18,16 @@ public interface ItemMapper {
 
     @Mapping(target = "owner", ignore = true)
     @Mapping(target = "request", ignore = true)
+    @Mapping(target = "lastBookingId", ignore = true)
+    @Mapping(target = "nextBookingId", ignore = true)
     Item fromDto(ItemDto itemDto);
 
     @Mapping(target = "owner", ignore = true)
     @Mapping(target = "request", ignore = true)
     @Mapping(target = "description", ignore = true)
     @Mapping(target = "available", ignore = true)
+    @Mapping(target = "lastBookingId", ignore = true)
+    @Mapping(target = "nextBookingId", ignore = true)
     Item fromClientDto(ItemClientDto itemClientDto);
 
     @Mapping(target = "lastBooking", ignore = true)
@@ -32,6 +36,13 @@ public interface ItemMapper {
     @Mapping(target = "requestId", source = "item.request.id")
     ItemWithBooking toItemWithBooking(Item item);
 
+    /**
+     * Карточка вещи для пользователя, не являющегося владельцем
+     */
+    @Mapping(target = "lastBooking", ignore = true)
+    @Mapping(target = "nextBooking", ignore = true)
+    ItemWithBooking toPublicView(ItemWithBooking ownerView);
+
     List<ItemDto> toListDto(List<Item> itemList);
 
     List<ItemClientDto> toListClientDto(List<Item> itemList);
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.model;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -16,9 +17,17 @@ import javax.persistence.*;
 @Table(name = "items")
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
+    /**
+     * Версия строки, растёт при каждом изменении; из неё строится ETag
+     */
+    @Version
+    @Column(name = "version")
+    private long version;
+
     @Column(name = "name")
     private String name;
 
@@ -28,11 +37,27 @@ public class Item {
     @Column(name = "is_available")
     private Boolean available;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User owner;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private ItemRequest request;
+
+    /**
+     * Последнее подтверждённое бронирование, поддерживается {@link ru.practicum.shareit.item.service.ItemBookingService}
+     */
+    @Column(name = "last_booking_id")
+    private Long lastBookingId;
+
+    /**
+     * Следующее подтверждённое бронирование
+     */
+    @Column(name = "next_booking_id")
+    private Long nextBookingId;
 }
@@ -2,26 +2,112 @@ package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.etag.VersionSummary;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemVersion;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
+    String SEARCH_VECTOR = "(setweight(to_tsvector('simple', it.name), 'A') " +
+            "|| setweight(to_tsvector('simple', it.description), 'B'))";
+
     Optional<Item> findById(Long itemId);
 
+    /**
+     * Вещь с блокировкой строки до конца транзакции, чтобы проверка пересечения бронирований
+     * и их сохранение не перемежались с параллельными запросами
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT it FROM Item it WHERE it.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") Long itemId);
+
+    /**
+     * Блокировка нескольких вещей в порядке id, чтобы параллельные пакеты не взаимоблокировались
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT it FROM Item it WHERE it.id IN :ids ORDER BY it.id")
+    List<Item> findAllByIdForUpdate(@Param("ids") Collection<Long> itemIds);
+
+    @Query("SELECT it.id AS id, it.version AS version, it.owner.id AS ownerId FROM Item it WHERE it.id = :id")
+    Optional<ItemVersion> findVersionById(@Param("id") Long itemId);
+
+    @Query("SELECT COUNT(it) AS total, COALESCE(SUM(it.version), 0) AS versions, COALESCE(MAX(it.id), 0) AS maxId " +
+            "FROM Item it WHERE it.owner.id = :owner")
+    VersionSummary summarizeVersionsByOwnerId(@Param("owner") Long ownerId);
+
+    @Query("SELECT COUNT(it) AS total, COALESCE(SUM(it.version), 0) AS versions, COALESCE(MAX(it.id), 0) AS maxId " +
+            "FROM Item it WHERE it.request.id = :request")
+    VersionSummary summarizeVersionsByRequestId(@Param("request") Long requestId);
+
+    @Query("SELECT COUNT(it) AS total, COALESCE(SUM(it.version), 0) AS versions, COALESCE(MAX(it.id), 0) AS maxId " +
+            "FROM Item it WHERE it.request.request.id = :requestor")
+    VersionSummary summarizeVersionsByRequestRequestId(@Param("requestor") Long requestor);
+
+    @Query("SELECT COUNT(it) AS total, COALESCE(SUM(it.version), 0) AS versions, COALESCE(MAX(it.id), 0) AS maxId " +
+            "FROM Item it WHERE it.request.request.id <> :requestor")
+    VersionSummary summarizeVersionsByRequestRequestIdNot(@Param("requestor") Long requestor);
+
+    /**
+     * Новая версия вещи без её изменения: карточка вещи включает комментарии, и ETag должен смениться
+     */
+    @Modifying
+    @Query("UPDATE Item it SET it.version = it.version + 1 WHERE it.id = :id")
+    void incrementVersion(@Param("id") Long itemId);
+
     List<Item> findAllByOwnerId(Long ownerId, Pageable pageable);
 
     List<Item> findAllByOwnerId(Long ownerId);
 
+    List<Item> findAllByOwnerIdAndIdGreaterThan(Long ownerId, Long id, Pageable pageable);
+
+    List<Item> findAllByIdGreaterThan(Long id, Pageable pageable);
+
     @Query("SELECT it FROM Item it WHERE it.available = true AND (upper(it.name) LIKE upper(CONCAT('%',:text,'%')) " +
             "OR upper(it.description) LIKE upper(CONCAT('%',:text,'%')))")
     List<Item> searchItems(@Param("text") String text, Pageable pageable);
 
+    /**
+     * Полнотекстовый поиск PostgreSQL, выражение совпадает с индексом items_search_idx
+     */
+    @Query(value = "SELECT it.id FROM items it WHERE it.is_available = true " +
+            "AND " + SEARCH_VECTOR + " @@ to_tsquery('simple', :query) " +
+            "ORDER BY ts_rank(" + SEARCH_VECTOR + ", to_tsquery('simple', :query)) DESC, it.id",
+            nativeQuery = true)
+    List<Long> fullTextSearch(@Param("query") String query, Pageable pageable);
+
+    /**
+     * Вещи из списка, у которых нет подтверждённых бронирований, пересекающихся с [start, end)
+     */
+    @Query("SELECT it.id FROM Item it WHERE it.id IN :ids AND NOT EXISTS (SELECT b.id FROM Booking b " +
+            "WHERE b.item = it AND b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED " +
+            "AND b.start < :end AND b.end > :start)")
+    List<Long> findAllAvailableIds(@Param("ids") Collection<Long> itemIds, @Param("start") LocalDateTime start,
+                                   @Param("end") LocalDateTime end);
+
+    /**
+     * Вещи из списка сразу в {@link ItemDto}, без загрузки сущностей в контекст
+     */
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDto(it.id, it.name, it.description, it.available, r.id) " +
+            "FROM Item it LEFT JOIN it.request r WHERE it.id IN :ids")
+    List<ItemDto> findAllDtoByIdIn(@Param("ids") Collection<Long> itemIds);
+
     List<Item> findAllByRequestId(Long requestId);
+
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    @Query("SELECT it FROM Item it, Booking b WHERE b.id = it.nextBookingId AND b.start < :date")
+    List<Item> findAllWithNextBookingStartedBefore(@Param("date") LocalDateTime date);
 }
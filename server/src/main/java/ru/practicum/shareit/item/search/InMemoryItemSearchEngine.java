@@ -0,0 +1,245 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Встроенный инвертированный индекс доступных вещей: слово -> сжатый список вещей ({@link PostingList}),
+ * в названии или описании которых оно встречается.
+ * Строится при старте из таблицы items и обновляется при создании и изменении вещей.
+ * Слова запроса ищутся по префиксу, вещь должна содержать все слова запроса.
+ * Релевантность: совпадение в названии весит больше, чем в описании, полное совпадение слова больше, чем по префиксу.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory")
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+
+    private static final int BUILD_BATCH_SIZE = 1000;
+
+    private static final int NAME_WEIGHT = 2;
+
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    /**
+     * Бит под суммарный вес совпадения при упаковке (id, вес) в одно long
+     */
+    private static final int SCORE_BITS = 16;
+
+    private final ItemRepository itemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Слово -> номер слова
+     */
+    private final NavigableMap<String, Integer> terms = new TreeMap<>();
+
+    /**
+     * Номер слова -> список вещей
+     */
+    private final List<PostingList> postings = new ArrayList<>();
+
+    /**
+     * id вещи -> упорядоченные номера её слов с признаком совпадения в названии (номер << 1 | признак),
+     * для обновления индекса при изменении
+     */
+    private int[][] itemTerms = new int[0][];
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long count = 0;
+        List<Item> items = itemRepository.findAllByIdGreaterThan(0L,
+                PageRequest.of(0, BUILD_BATCH_SIZE, Sort.by("id")));
+        while (!items.isEmpty()) {
+            items.forEach(this::index);
+            count += items.size();
+            Long lastId = items.get(items.size() - 1).getId();
+            items = itemRepository.findAllByIdGreaterThan(lastId, PageRequest.of(0, BUILD_BATCH_SIZE, Sort.by("id")));
+        }
+        lock.writeLock().lock();
+        try {
+            postings.forEach(PostingList::trim);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index built for {} items, {} terms", count, terms.size());
+    }
+
+    @Override
+    public void index(Item item) {
+        int itemId = Math.toIntExact(item.getId());
+        Map<String, Boolean> inName = new HashMap<>();
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            ItemSearchTokenizer.tokenize(item.getName()).forEach(term -> inName.put(term, true));
+            ItemSearchTokenizer.tokenize(item.getDescription()).forEach(term -> inName.putIfAbsent(term, false));
+        }
+        lock.writeLock().lock();
+        try {
+            int[] entries = new int[inName.size()];
+            int i = 0;
+            for (Map.Entry<String, Boolean> entry : inName.entrySet()) {
+                int termId = terms.computeIfAbsent(entry.getKey(), t -> {
+                    postings.add(new PostingList());
+                    return postings.size() - 1;
+                });
+                entries[i++] = termId << 1 | (entry.getValue() ? 1 : 0);
+            }
+            Arrays.sort(entries);
+            int[] previous = itemId < itemTerms.length && itemTerms[itemId] != null ? itemTerms[itemId] : new int[0];
+            update(itemId, previous, entries);
+            if (itemId >= itemTerms.length) {
+                if (entries.length == 0) {
+                    return;
+                }
+                itemTerms = Arrays.copyOf(itemTerms, Math.max(itemId + 1, itemTerms.length * 2));
+            }
+            itemTerms[itemId] = entries.length == 0 ? null : entries;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> search(String text, Pageable pageable) {
+        List<String> tokens = ItemSearchTokenizer.tokenize(text);
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long[] scores = null;
+        lock.readLock().lock();
+        try {
+            for (String token : tokens) {
+                long[] matches = match(token);
+                scores = scores == null ? matches : intersect(scores, matches);
+                if (scores.length == 0) {
+                    return Collections.emptyList();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return rank(scores, pageable);
+    }
+
+    /**
+     * Вещи, содержащие слово с заданным префиксом, с лучшим весом совпадения:
+     * упорядоченный по id массив значений (id << SCORE_BITS | вес)
+     */
+    private long[] match(String prefix) {
+        long[][] found = {new long[16]};
+        int[] count = {0};
+        for (Map.Entry<String, Integer> entry : terms.tailMap(prefix, true).entrySet()) {
+            String term = entry.getKey();
+            if (!term.startsWith(prefix)) {
+                break;
+            }
+            int exact = term.length() == prefix.length() ? 2 : 1;
+            PostingList postingList = postings.get(entry.getValue());
+            if (count[0] + postingList.size() > found[0].length) {
+                found[0] = Arrays.copyOf(found[0], Math.max(found[0].length * 2, count[0] + postingList.size()));
+            }
+            postingList.forEach((id, inName) -> found[0][count[0]++] =
+                    id << SCORE_BITS | (long) (inName ? NAME_WEIGHT : DESCRIPTION_WEIGHT) * exact);
+        }
+        long[] matches = found[0];
+        Arrays.sort(matches, 0, count[0]);
+        int size = 0;
+        for (int i = 0; i < count[0]; i++) {
+            // у одной вещи остаётся последнее, то есть наибольшее по весу значение
+            if (size > 0 && matches[size - 1] >>> SCORE_BITS == matches[i] >>> SCORE_BITS) {
+                size--;
+            }
+            matches[size++] = matches[i];
+        }
+        return Arrays.copyOf(matches, size);
+    }
+
+    /**
+     * Вещи, найденные по обоим словам, с суммой весов
+     */
+    private long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            long leftId = left[i] >>> SCORE_BITS;
+            long rightId = right[j] >>> SCORE_BITS;
+            if (leftId < rightId) {
+                i++;
+            } else if (leftId > rightId) {
+                j++;
+            } else {
+                result[size++] = left[i++] + (right[j++] & ((1L << SCORE_BITS) - 1));
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Страница результатов по убыванию веса, при равном весе по возрастанию id
+     */
+    private List<Long> rank(long[] scores, Pageable pageable) {
+        long[] ranked = new long[scores.length];
+        for (int i = 0; i < scores.length; i++) {
+            long id = scores[i] >>> SCORE_BITS;
+            long score = scores[i] & ((1L << SCORE_BITS) - 1);
+            ranked[i] = (Integer.MAX_VALUE - score) << Integer.SIZE | id;
+        }
+        Arrays.sort(ranked);
+        List<Long> ids = new ArrayList<>();
+        long end = Math.min(ranked.length, pageable.getOffset() + pageable.getPageSize());
+        for (long i = pageable.getOffset(); i < end; i++) {
+            ids.add(ranked[(int) i] & 0xFFFFFFFFL);
+        }
+        return ids;
+    }
+
+    /**
+     * Изменение списков по разнице старых и новых слов вещи: списки слов, которые остались с тем же признаком
+     * совпадения в названии, не трогаются
+     */
+    private void update(int itemId, int[] previous, int[] current) {
+        int i = 0;
+        int j = 0;
+        while (i < previous.length || j < current.length) {
+            int previousTerm = i < previous.length ? previous[i] >>> 1 : Integer.MAX_VALUE;
+            int currentTerm = j < current.length ? current[j] >>> 1 : Integer.MAX_VALUE;
+            if (previousTerm < currentTerm) {
+                postings.get(previousTerm).remove(itemId);
+                i++;
+            } else if (previousTerm > currentTerm) {
+                postings.get(currentTerm).add(itemId, (current[j] & 1) != 0);
+                j++;
+            } else {
+                if (previous[i] != current[j]) {
+                    postings.get(currentTerm).add(itemId, (current[j] & 1) != 0);
+                }
+                i++;
+                j++;
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Поиск доступных вещей по тексту в названии и описании.
+ * Реализация выбирается свойством {@code shareit.search.engine}.
+ */
+public interface ItemSearchEngine {
+
+    /**
+     * Идентификаторы доступных вещей, подходящих под запрос, в порядке убывания релевантности
+     */
+    List<Long> search(String text, Pageable pageable);
+
+    /**
+     * Обновление индекса после создания или изменения вещи
+     */
+    default void index(Item item) {
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск подстроки через LIKE без индекса, для баз без полнотекстового поиска
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "like")
+public class LikeItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Long> search(String text, Pageable pageable) {
+        return itemRepository.searchItems(text, pageable).stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+    }
+}
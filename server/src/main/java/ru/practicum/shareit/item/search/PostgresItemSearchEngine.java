@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Полнотекстовый поиск PostgreSQL по tsvector с GIN-индексом items_search_idx
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Long> search(String text, Pageable pageable) {
+        List<String> tokens = ItemSearchTokenizer.tokenize(text);
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String query = tokens.stream().map(token -> token + ":*").collect(Collectors.joining(" & "));
+        return itemRepository.fullTextSearch(query, pageable);
+    }
+}
@@ -0,0 +1,176 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+
+/**
+ * Список вещей, содержащих слово, упорядоченный по id и сжатый в массив байт:
+ * каждая запись — varint от (разница с предыдущим id << 1 | признак совпадения в названии).
+ * Добавление вещи с наибольшим id дописывает в конец, смена признака меняет один бит, вставка и удаление
+ * перекодируют только соседнюю запись и сдвигают хвост массива.
+ */
+final class PostingList {
+
+    private byte[] data = new byte[4];
+
+    private int length;
+
+    private int size;
+
+    private long lastId;
+
+    interface Consumer {
+        void accept(long id, boolean inName);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(long id, boolean inName) {
+        if (id > lastId) {
+            append(id, inName);
+            return;
+        }
+        long previous = 0;
+        int position = 0;
+        while (true) {
+            long value = read(position);
+            long current = previous + (value >>> 1);
+            int end = skip(position);
+            if (current == id) {
+                // признак совпадения в названии — младший бит первого байта записи
+                data[position] = (byte) (data[position] & ~1 | (inName ? 1 : 0));
+                return;
+            }
+            if (current > id) {
+                replace(position, end, (id - previous) << 1 | (inName ? 1 : 0), (current - id) << 1 | (value & 1));
+                size++;
+                return;
+            }
+            previous = current;
+            position = end;
+        }
+    }
+
+    void remove(long id) {
+        long previous = 0;
+        int position = 0;
+        while (position < length) {
+            long value = read(position);
+            long current = previous + (value >>> 1);
+            int end = skip(position);
+            if (current > id) {
+                return;
+            }
+            if (current == id) {
+                if (end == length) {
+                    length = position;
+                    lastId = previous;
+                } else {
+                    // разница следующей записи отсчитывается от предыдущей вещи
+                    long next = read(end);
+                    replace(position, skip(end), ((value >>> 1) + (next >>> 1)) << 1 | (next & 1));
+                }
+                size--;
+                return;
+            }
+            previous = current;
+            position = end;
+        }
+    }
+
+    /**
+     * Освобождение незанятого хвоста буфера после массовой загрузки
+     */
+    void trim() {
+        data = Arrays.copyOf(data, length);
+    }
+
+    void forEach(Consumer consumer) {
+        long id = 0;
+        int position = 0;
+        while (position < length) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            id += value >>> 1;
+            consumer.accept(id, (value & 1) != 0);
+        }
+    }
+
+    private void append(long id, boolean inName) {
+        ensureCapacity(length + 10);
+        length = write(length, (id - lastId) << 1 | (inName ? 1 : 0));
+        lastId = id;
+        size++;
+    }
+
+    /**
+     * Замена записей в [from, to) новыми значениями со сдвигом хвоста списка
+     */
+    private void replace(int from, int to, long... values) {
+        int bytes = 0;
+        for (long value : values) {
+            bytes += varintLength(value);
+        }
+        int tail = length - to;
+        ensureCapacity(from + bytes + tail);
+        System.arraycopy(data, to, data, from + bytes, tail);
+        int position = from;
+        for (long value : values) {
+            position = write(position, value);
+        }
+        length = position + tail;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, capacity));
+        }
+    }
+
+    private long read(int position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    /**
+     * Позиция следующей записи
+     */
+    private int skip(int position) {
+        while (data[position++] < 0) {
+            // продолжение varint
+        }
+        return position;
+    }
+
+    private int write(int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            data[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[position++] = (byte) value;
+        return position;
+    }
+
+    private static int varintLength(long value) {
+        int bytes = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            bytes++;
+        }
+        return bytes;
+    }
+}
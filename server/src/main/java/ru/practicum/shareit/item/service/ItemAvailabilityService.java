@@ -0,0 +1,50 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.BookingValidationException;
+import ru.practicum.shareit.exception.ItemNotFoundException;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.service.UserCache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Календарь доступности вещи для GET /items/{id}/availability
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemAvailabilityService {
+
+    /**
+     * Наибольший запрашиваемый период
+     */
+    private static final Duration MAX_PERIOD = Duration.ofDays(2 * 366);
+
+    private final ItemRepository itemRepository;
+
+    private final UserCache userCache;
+
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+
+    @Transactional(readOnly = true)
+    public List<AvailabilityIntervalDto> getAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to) {
+        userCache.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        if (!from.isBefore(to) || Duration.between(from, to).compareTo(MAX_PERIOD) > 0) {
+            log.error("Invalid availability period from {} to {}", from, to);
+            throw new BookingValidationException();
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new ItemNotFoundException(itemId);
+        }
+        return itemAvailabilityIndex.getAvailability(itemId, from, to);
+    }
+}
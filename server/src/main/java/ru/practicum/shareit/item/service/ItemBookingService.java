@@ -0,0 +1,65 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Поддержка сохранённых в вещи ссылок на последнее и следующее подтверждённое бронирование
+ * (items.last_booking_id / items.next_booking_id).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemBookingService {
+
+    private final ItemRepository itemRepository;
+
+    private final BookingRepository bookingRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Пересчёт последнего и следующего бронирования вещи после изменения статуса её бронирований
+     */
+    @Transactional
+    public void refresh(Item item) {
+        LocalDateTime date = LocalDateTime.now();
+        item.setLastBookingId(findLastBooking(item.getId(), date));
+        item.setNextBookingId(findNextBooking(item.getId(), date));
+        log.info("Item {} last booking {} next booking {}", item.getId(), item.getLastBookingId(), item.getNextBookingId());
+        eventPublisher.publishEvent(new ItemChangedEvent(item.getId()));
+    }
+
+    /**
+     * Сдвиг по времени: у вещей, чьё следующее бронирование уже началось, оно становится последним
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking-projection.roll-forward-delay:60000}")
+    @Transactional
+    public void rollForward() {
+        List<Item> items = itemRepository.findAllWithNextBookingStartedBefore(LocalDateTime.now());
+        log.info("Roll forward bookings for {} items", items.size());
+        items.forEach(this::refresh);
+    }
+
+    public Long findLastBooking(Long itemId, LocalDateTime date) {
+        return bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(itemId,
+                BookingStatus.APPROVED, date).map(Booking::getId).orElse(null);
+    }
+
+    public Long findNextBooking(Long itemId, LocalDateTime date) {
+        return bookingRepository.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(itemId,
+                BookingStatus.APPROVED, date).map(Booking::getId).orElse(null);
+    }
+}
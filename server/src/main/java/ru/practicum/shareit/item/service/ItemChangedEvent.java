@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Изменились данные, из которых собирается карточка вещи: сама вещь, её комментарии или бронирования
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class ItemChangedEvent {
+
+    private final long itemId;
+}
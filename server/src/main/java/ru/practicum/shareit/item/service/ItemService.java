@@ -2,11 +2,14 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
@@ -15,6 +18,8 @@ import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.mapper.CommentMapper;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.repository.CommentRepository;
+import ru.practicum.shareit.etag.EntityTag;
+import ru.practicum.shareit.exception.BookingValidationException;
 import ru.practicum.shareit.exception.CommentValidationException;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.ItemRequestNotFoundException;
@@ -24,14 +29,23 @@ import ru.practicum.shareit.item.dto.ItemWithBooking;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -39,8 +53,13 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ItemService {
 
+    /**
+     * Сколько совпадений поиска проверяется на занятость одним запросом
+     */
+    private static final int SEARCH_BATCH_SIZE = 100;
+
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
 
     private final BookingRepository bookingRepository;
     private final ItemMapper itemMapper;
@@ -52,10 +71,19 @@ public class ItemService {
 
     private final ItemRequestRepository itemRequestRepository;
 
+    private final ItemBookingService itemBookingService;
+
+    private final ItemSearchEngine itemSearchEngine;
+
+    private final ItemViewCache itemViewCache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
 
     @Transactional
     public ItemDto createItem(ItemDto itemDto, long userId) {
         Item item = itemMapper.fromDto(itemDto);
+        item.setId(null);
         log.info("Item {}", item);
         User owner = getOwner(userId);
         Long itemReqId = itemDto.getRequestId();
@@ -66,7 +94,9 @@ public class ItemService {
             itemDto.setRequestId(itemReqId);
         }
         item.setOwner(owner);
-        itemDto.setId(itemRepository.save(item).getId());
+        Item saved = itemRepository.save(item);
+        indexAfterCommit(saved);
+        itemDto.setId(saved.getId());
         return itemDto;
     }
 
@@ -76,14 +106,60 @@ public class ItemService {
         final long itemId = itemDto.getId();
         Item item = getItem(itemId, userId, itemDto);
         itemRepository.save(item);
+        indexAfterCommit(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
         return getItemWithBooking(item, userId);
     }
 
     @Transactional(readOnly = true)
     public ItemWithBooking getItem(long itemId, long userId) {
         getOwner(userId);
-        Item item = itemRepository.findById(itemId).orElseThrow(() -> new ItemNotFoundException(itemId));
-        return getItemWithBooking(item, userId);
+        ItemViewCache.ItemView view = itemViewCache.get(itemId);
+        if (view == null) {
+            long generation = itemViewCache.generation(itemId);
+            Item item = itemRepository.findById(itemId).orElseThrow(() -> new ItemNotFoundException(itemId));
+            long ownerId = item.getOwner().getId();
+            List<Item> items = List.of(item);
+            Map<Long, Booking> bookings = getProjectedBookings(items, ownerId);
+            ItemWithBooking ownerView = getItemsWithBooking(items, ownerId, bookings).get(0);
+            view = new ItemViewCache.ItemView(ownerId, ownerView, getNextBookingStart(ownerView, bookings));
+            itemViewCache.put(itemId, generation, view);
+        }
+        return view.getOwnerId() == userId ? view.getOwnerView() : itemMapper.toPublicView(view.getOwnerView());
+    }
+
+    /**
+     * ETag карточки вещи по версии строки и версиям авторов комментариев: бронирования и комментарии не загружаются.
+     * Владелец и остальные пользователи видят вещь по-разному, поэтому и ETag у них разный; в ETag владельца
+     * входит число начавшихся бронирований, от которого зависят последнее и следующее бронирования. null, если вещи нет
+     */
+    @Transactional(readOnly = true)
+    public String getItemTag(long itemId, long userId) {
+        getOwner(userId);
+        return itemRepository.findVersionById(itemId)
+                .map(item -> {
+                    String comments = commentRepository.summarizeAuthorVersionsByItemId(itemId).toTag();
+                    if (item.getOwnerId() != userId) {
+                        return EntityTag.of("item", itemId, item.getVersion(), "public", comments);
+                    }
+                    long started = bookingRepository.countByItemIdAndStatusAndStartBefore(itemId,
+                            BookingStatus.APPROVED, LocalDateTime.now());
+                    return EntityTag.of("item", itemId, item.getVersion(), "owner", comments, started);
+                })
+                .orElse(null);
+    }
+
+    /**
+     * ETag списка вещей владельца: общий для всех страниц и меняется при изменении любой его вещи,
+     * автора комментария к ней или при начале бронирования
+     */
+    @Transactional(readOnly = true)
+    public String getAllItemsTag(long userId) {
+        getOwner(userId);
+        return EntityTag.of("items", userId, itemRepository.summarizeVersionsByOwnerId(userId).toTag(),
+                commentRepository.summarizeAuthorVersionsByItemOwnerId(userId).toTag(),
+                bookingRepository.countByItemOwnerIdAndStatusAndStartBefore(userId, BookingStatus.APPROVED,
+                        LocalDateTime.now()));
     }
 
     @Transactional(readOnly = true)
@@ -94,10 +170,66 @@ public class ItemService {
         return getItemsWithBooking(items, userId);
     }
 
+    @Transactional(readOnly = true)
+    public List<ItemWithBooking> getAllItemsAfter(long userId, PageCursor after, Integer size) {
+        Pageable pageable = PageRequest.of(0, size, Sort.by("id").ascending());
+        List<Item> items = itemRepository.findAllByOwnerIdAndIdGreaterThan(userId, after.getId(), pageable);
+        return getItemsWithBooking(items, userId);
+    }
+
     @Transactional(readOnly = true)
     public List<ItemDto> searchItems(String text, long userId, Integer from, Integer size) {
         Pageable pageable = PageRequest.of(from / size, size);
-        return itemMapper.toListDto(itemRepository.searchItems(text, pageable));
+        return getItemsInOrder(itemSearchEngine.search(text, pageable));
+    }
+
+    /**
+     * Поиск вещей, свободных в [start, end): совпадения поиска читаются порциями
+     * и отсеиваются одним запросом на порцию, пока не наберётся страница
+     */
+    @Transactional(readOnly = true)
+    public List<ItemDto> searchAvailableItems(String text, long userId, LocalDateTime start, LocalDateTime end,
+                                              Integer from, Integer size) {
+        if (!start.isBefore(end)) {
+            log.error("Invalid search period from {} to {}", start, end);
+            throw new BookingValidationException();
+        }
+        int batchSize = Math.max(size, SEARCH_BATCH_SIZE);
+        int skip = from;
+        List<Long> found = new ArrayList<>();
+        for (int page = 0; found.size() < size; page++) {
+            List<Long> ids = itemSearchEngine.search(text, PageRequest.of(page, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            Set<Long> available = new HashSet<>(itemRepository.findAllAvailableIds(ids, start, end));
+            for (Long id : ids) {
+                if (!available.contains(id)) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                } else if (found.size() < size) {
+                    found.add(id);
+                }
+            }
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        return getItemsInOrder(found);
+    }
+
+    private List<ItemDto> getItemsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, ItemDto> items = itemRepository.findAllDtoByIdIn(ids).stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     @Transactional
@@ -105,7 +237,7 @@ public class ItemService {
 
         Sort sort = Sort.by("start").descending();
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new ItemNotFoundException(itemId));
-        User user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        User user = userCache.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
         List<Booking> bookings = bookingRepository.findAllByItemId(item.getId(), sort);
         if (bookings.stream().anyMatch(b -> b.getBooker().getId() == userId && b.getEnd().isBefore(LocalDateTime.now()))) {
             commentDto.setAuthorName(user.getName());
@@ -114,6 +246,8 @@ public class ItemService {
             comment.setAuthor(user);
             comment.setItem(item);
             commentDto.setId(commentRepository.save(comment).getId());
+            itemRepository.incrementVersion(itemId);
+            eventPublisher.publishEvent(new ItemChangedEvent(itemId));
         } else {
             log.error("У пользователя нет прав для добавления комментария!!");
             throw new CommentValidationException();
@@ -121,53 +255,113 @@ public class ItemService {
         return commentDto;
     }
 
+    /**
+     * Поисковый индекс обновляется после фиксации транзакции, без транзакции — сразу,
+     * чтобы откат не оставил в индексе несуществующую или неизменённую вещь
+     */
+    private void indexAfterCommit(Item item) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    itemSearchEngine.index(item);
+                }
+            });
+        } else {
+            itemSearchEngine.index(item);
+        }
+    }
+
     private User getOwner(Long userId) {
-        return userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        return userCache.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
     }
 
     public List<ItemWithBooking> getItemsWithBooking(List<Item> items, Long userId) {
-        log.info("Items size {}", items.size());
-        List<ItemWithBooking> withBookings = new ArrayList<>();
         if (items.isEmpty()) {
-            return withBookings;
+            return new ArrayList<>();
         }
+        return getItemsWithBooking(items, userId, getProjectedBookings(items, userId));
+    }
+
+    /**
+     * Сборка карточек по уже загруженным бронированиям; бронирования, догруженные при устаревшей проекции,
+     * добавляются в bookings
+     */
+    private List<ItemWithBooking> getItemsWithBooking(List<Item> items, Long userId, Map<Long, Booking> bookings) {
+        log.info("Items size {}", items.size());
+        List<ItemWithBooking> withBookings = new ArrayList<>();
         LocalDateTime date = LocalDateTime.now();
-        Sort sort = Sort.by("start").descending();
-        List<Booking> bookings = bookingRepository.findBookingByItemIn(items, sort).stream()
-                .filter(b -> b.getStatus().equals(BookingStatus.APPROVED)).collect(Collectors.toList());
-        List<Comment> comments = commentRepository.findAllByItemIn(items);
+        Map<Long, List<Comment>> comments = commentRepository.findAllByItemIn(items).stream()
+                .collect(Collectors.groupingBy(c -> c.getItem().getId()));
         for (Item item : items) {
-
-            List<Booking> lastBookings = bookings.stream().filter(i -> i.getStart().isBefore(date)
-                            && i.getItem().getId().equals(item.getId()))
-                    .collect(Collectors.toList());
-
-            List<Booking> nextBookings = bookings.stream().filter(i -> i.getStart().isAfter(date)
-                            && i.getItem().getId().equals(item.getId()))
-                    .collect(Collectors.toList());
             ItemWithBooking itemWithBooking = itemMapper.toItemWithBooking(item);
-
-            Booking lastBooking = null;
-            Booking nextBooking = null;
-            if (!lastBookings.isEmpty()) {
-                lastBooking = lastBookings.get(0);
-            }
-            if (!nextBookings.isEmpty()) {
-                nextBooking = nextBookings.get(nextBookings.size() - 1);
-            }
-            log.info("Last booking {}", lastBooking);
-            log.info("Next booking {}", nextBooking);
             if (userId.equals(item.getOwner().getId())) {
+                Booking lastBooking = bookings.get(item.getLastBookingId());
+                Booking nextBooking = bookings.get(item.getNextBookingId());
+                if (nextBooking != null && !nextBooking.getStart().isAfter(date)) {
+                    // следующее бронирование уже началось, а проекция ещё не сдвинута планировщиком
+                    lastBooking = findBooking(bookings, itemBookingService.findLastBooking(item.getId(), date));
+                    nextBooking = findBooking(bookings, itemBookingService.findNextBooking(item.getId(), date));
+                }
+                log.info("Last booking {}", lastBooking);
+                log.info("Next booking {}", nextBooking);
                 itemWithBooking.setNextBooking(bookingMapper.toBookingForItem(nextBooking));
                 itemWithBooking.setLastBooking(bookingMapper.toBookingForItem(lastBooking));
             }
-            itemWithBooking.setComments(commentMapper.toListDto(comments.stream()
-                    .filter(c -> c.getItem().equals(item)).collect(Collectors.toList())));
+            itemWithBooking.setComments(commentMapper.toListDto(comments.getOrDefault(item.getId(),
+                    Collections.emptyList())));
             withBookings.add(itemWithBooking);
         }
         return withBookings;
     }
 
+    /**
+     * Последние и следующие бронирования вещей владельца по сохранённым в вещах идентификаторам
+     */
+    private Map<Long, Booking> getProjectedBookings(List<Item> items, Long userId) {
+        Set<Long> bookingIds = new HashSet<>();
+        for (Item item : items) {
+            if (userId.equals(item.getOwner().getId())) {
+                if (item.getLastBookingId() != null) {
+                    bookingIds.add(item.getLastBookingId());
+                }
+                if (item.getNextBookingId() != null) {
+                    bookingIds.add(item.getNextBookingId());
+                }
+            }
+        }
+        if (bookingIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return bookingRepository.findAllById(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity(), (a, b) -> a, HashMap::new));
+    }
+
+    /**
+     * Начало следующего бронирования, уже загруженного при сборке карточки
+     */
+    private LocalDateTime getNextBookingStart(ItemWithBooking itemWithBooking, Map<Long, Booking> bookings) {
+        if (itemWithBooking.getNextBooking() == null) {
+            return null;
+        }
+        Booking nextBooking = bookings.get(itemWithBooking.getNextBooking().getId());
+        return nextBooking != null ? nextBooking.getStart() : null;
+    }
+
+    private Booking findBooking(Map<Long, Booking> bookings, Long bookingId) {
+        if (bookingId == null) {
+            return null;
+        }
+        Booking booking = bookings.get(bookingId);
+        if (booking == null) {
+            booking = bookingRepository.findById(bookingId).orElse(null);
+            if (booking != null) {
+                bookings.put(bookingId, booking);
+            }
+        }
+        return booking;
+    }
+
 
     private Item getItem(Long itemId, Long userId, ItemDto itemDto) {
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new ItemNotFoundException(itemId));
@@ -191,10 +385,6 @@ public class ItemService {
 
 
     private ItemWithBooking getItemWithBooking(Item item, Long userId) {
-        List<CommentDto> comments = commentMapper.toListDto(commentRepository.findAllByItem(item));
-        List<ItemWithBooking> bookings = getItemsWithBooking(List.of(item), userId);
-        ItemWithBooking itemWithBooking = bookings.get(0);
-        itemWithBooking.setComments(comments);
-        return itemWithBooking;
+        return getItemsWithBooking(List.of(item), userId).get(0);
     }
 }
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.Getter;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingForItem;
+import ru.practicum.shareit.cache.GenerationGuardedCache;
+import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemWithBooking;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш собранных карточек вещей для GET /items/{id}.
+ * Хранится представление владельца, представление для остальных пользователей получается из него
+ * без последнего и следующего бронирования. Запись сбрасывается по {@link ItemChangedEvent} после фиксации
+ * транзакции. Чтобы чтение, начавшееся до фиксации, не вернуло в кэш старую карточку, запись защищена
+ * поколением вещи (см. {@link GenerationGuardedCache}).
+ */
+@Component
+public class ItemViewCache {
+
+    public static final String ITEMS = "items";
+
+    private final GenerationGuardedCache cache;
+
+    public ItemViewCache(CacheManager cacheManager) {
+        this.cache = new GenerationGuardedCache(cacheManager.getCache(ITEMS));
+    }
+
+    public ItemView get(long itemId) {
+        ItemView view = cache.get(itemId, ItemView.class);
+        if (view != null && view.getValidUntil() != null && !LocalDateTime.now().isBefore(view.getValidUntil())) {
+            cache.evict(itemId);
+            return null;
+        }
+        return view;
+    }
+
+    /**
+     * Поколение вещи: читается до загрузки карточки из базы и передаётся в {@link #put}
+     */
+    public long generation(long itemId) {
+        return cache.generation(itemId);
+    }
+
+    /**
+     * Кладёт карточку, если с начала её загрузки вещь не сбрасывалась
+     */
+    public void put(long itemId, long generation, ItemView view) {
+        cache.putIfUnchanged(itemId, generation, view);
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        cache.invalidateAfterCommit(event.getItemId());
+    }
+
+    /**
+     * Неизменяемая запись кэша: карточка копируется при создании и при каждом чтении
+     */
+    public static class ItemView {
+
+        @Getter
+        private final long ownerId;
+
+        private final ItemWithBooking ownerView;
+
+        /**
+         * Начало следующего бронирования: с этого момента последнее и следующее бронирования в карточке устаревают
+         */
+        @Getter
+        private final LocalDateTime validUntil;
+
+        public ItemView(long ownerId, ItemWithBooking ownerView, LocalDateTime validUntil) {
+            this.ownerId = ownerId;
+            this.ownerView = copyOf(ownerView);
+            this.validUntil = validUntil;
+        }
+
+        public ItemWithBooking getOwnerView() {
+            return copyOf(ownerView);
+        }
+
+        private static ItemWithBooking copyOf(ItemWithBooking view) {
+            ItemWithBooking copy = new ItemWithBooking();
+            copy.setId(view.getId());
+            copy.setName(view.getName());
+            copy.setDescription(view.getDescription());
+            copy.setAvailable(view.getAvailable());
+            copy.setLastBooking(copyOf(view.getLastBooking()));
+            copy.setNextBooking(copyOf(view.getNextBooking()));
+            copy.setComments(copyOf(view.getComments()));
+            copy.setRequestId(view.getRequestId());
+            return copy;
+        }
+
+        private static BookingForItem copyOf(BookingForItem booking) {
+            if (booking == null) {
+                return null;
+            }
+            BookingForItem copy = new BookingForItem();
+            copy.setId(booking.getId());
+            copy.setBookerId(booking.getBookerId());
+            return copy;
+        }
+
+        private static List<CommentDto> copyOf(List<CommentDto> comments) {
+            if (comments == null) {
+                return null;
+            }
+            return comments.stream()
+                    .map(comment -> {
+                        CommentDto copy = new CommentDto();
+                        copy.setId(comment.getId());
+                        copy.setText(comment.getText());
+                        copy.setAuthorName(comment.getAuthorName());
+                        copy.setCreated(comment.getCreated());
+                        return copy;
+                    })
+                    .collect(Collectors.toUnmodifiableList());
+        }
+    }
+}
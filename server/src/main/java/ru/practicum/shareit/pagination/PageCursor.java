@@ -0,0 +1,94 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.exception.CursorValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Курсор постраничного вывода по ключу (keyset/seek): значение поля сортировки
+ * и идентификатор последней записи страницы. Передаётся клиенту в виде непрозрачного токена.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class PageCursor {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Значение поля сортировки последней записи, может отсутствовать при сортировке только по id
+     */
+    private final LocalDateTime sortKey;
+    /**
+     * Идентификатор последней записи
+     */
+    private final long id;
+
+    public PageCursor(LocalDateTime sortKey, long id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    /**
+     * Разбор токена из параметра запроса, используется Spring при конвертации {@code @RequestParam}.
+     * Принимается только токен, выданный {@link #encode()}: ровно два поля и совпадение при повторном кодировании
+     */
+    public static PageCursor valueOf(String token) {
+        PageCursor cursor;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(Pattern.quote(SEPARATOR), -1);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor " + token);
+            }
+            cursor = new PageCursor(parts[0].isEmpty() ? null : LocalDateTime.parse(parts[0]),
+                    Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor " + token, e);
+        }
+        if (!cursor.encode().equals(token)) {
+            throw new IllegalArgumentException("Invalid cursor " + token);
+        }
+        return cursor;
+    }
+
+    /**
+     * Курсор списка, отсортированного по времени. Токен без значения поля сортировки выдаёт только список вещей;
+     * в запросах по ключу (время, id) он дал бы пустую страницу вместо ошибки
+     */
+    public PageCursor requireSortKey() {
+        if (sortKey == null) {
+            throw new CursorValidationException("Cursor without sort key " + this);
+        }
+        return this;
+    }
+
+    public String encode() {
+        String decoded = (sortKey == null ? "" : sortKey.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(decoded.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Ответ со страницей и курсором на следующую страницу в заголовке {@link #NEXT_CURSOR_HEADER},
+     * если страница заполнена полностью.
+     */
+    public static <T> ResponseEntity<List<T>> page(List<T> content, Integer size, Function<T, PageCursor> cursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!content.isEmpty() && content.size() >= size) {
+            response.header(NEXT_CURSOR_HEADER, cursor.apply(content.get(content.size() - 1)).encode());
+        }
+        return response.body(content);
+    }
+}
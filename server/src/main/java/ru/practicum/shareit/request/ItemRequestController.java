@@ -5,8 +5,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.RequestInfoDto;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
 import java.util.List;
@@ -30,21 +32,35 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public List<RequestInfoDto> getAllRequestsForOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
+    public List<RequestInfoDto> getAllRequestsForOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                       WebRequest request) {
+        if (request.checkNotModified(itemRequestService.getOwnRequestsTag(userId))) {
+            return null;
+        }
         return itemRequestService.getAllRequestsForOwner(userId);
     }
 
     @GetMapping("/all")
-    public List<RequestInfoDto> getAllRequests(@RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                @RequestParam(name = "size", defaultValue = "10") Integer size,
-                                               @RequestHeader("X-Sharer-User-Id") Long userId) {
-
-        return itemRequestService.getAllRequests(userId, from, size);
+    public ResponseEntity<List<RequestInfoDto>> getAllRequests(@RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                               @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                               @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                               @RequestParam(name = "after", required = false) PageCursor after,
+                                                               WebRequest request) {
+        if (request.checkNotModified(itemRequestService.getAllRequestsTag(userId))) {
+            return null;
+        }
+        List<RequestInfoDto> requests = after == null
+                ? itemRequestService.getAllRequests(userId, from, size)
+                : itemRequestService.getAllRequestsAfter(userId, after, size);
+        return PageCursor.page(requests, size, requestInfo -> new PageCursor(requestInfo.getCreated(), requestInfo.getId()));
     }
 
     @GetMapping("/{requestId}")
     public ResponseEntity<RequestInfoDto> getRequestById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                         @PathVariable Long requestId) {
+                                                         @PathVariable Long requestId, WebRequest request) {
+        if (request.checkNotModified(itemRequestService.getItemRequestTag(userId, requestId))) {
+            return null;
+        }
         return ResponseEntity.ok(itemRequestService.getItemRequestById(userId, requestId));
     }
 }
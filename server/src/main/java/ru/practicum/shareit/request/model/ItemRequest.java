@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request.model;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
@@ -14,13 +16,23 @@ import java.time.LocalDateTime;
 @Table(name = "requests")
 public class ItemRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "requests_seq", allocationSize = 50)
     private long id;
+
+    /**
+     * Версия строки, растёт при каждом изменении; из неё строится ETag
+     */
+    @Version
+    @Column(name = "version")
+    private long version;
     @Column(name = "description")
     private String description;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "requestor_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User request;
 
     private LocalDateTime created;
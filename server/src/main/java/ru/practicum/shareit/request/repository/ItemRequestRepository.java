@@ -3,15 +3,36 @@ package ru.practicum.shareit.request.repository;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.etag.VersionSummary;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
     List<ItemRequest> findByRequestIdNot(Long requestId, Pageable page);
 
+    @Query("SELECT r FROM ItemRequest r where r.request.id <> :requestor " +
+            "and (r.created < :created or (r.created = :created and r.id < :id))")
+    List<ItemRequest> seekByRequestIdNot(@Param("requestor") Long requestor, @Param("created") LocalDateTime created,
+                                         @Param("id") Long id, Pageable page);
+
     List<ItemRequest> findAllByRequestId(Long requestId, Sort sort);
+
+    @Query("SELECT r.version FROM ItemRequest r WHERE r.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT COUNT(r) AS total, COALESCE(SUM(r.version), 0) AS versions, COALESCE(MAX(r.id), 0) AS maxId " +
+            "FROM ItemRequest r WHERE r.request.id = :requestor")
+    VersionSummary summarizeVersionsByRequestId(@Param("requestor") Long requestor);
+
+    @Query("SELECT COUNT(r) AS total, COALESCE(SUM(r.version), 0) AS versions, COALESCE(MAX(r.id), 0) AS maxId " +
+            "FROM ItemRequest r WHERE r.request.id <> :requestor")
+    VersionSummary summarizeVersionsByRequestIdNot(@Param("requestor") Long requestor);
 }
@@ -8,23 +8,27 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.etag.EntityTag;
 import ru.practicum.shareit.exception.ItemRequestNotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.RequestInfoDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -32,7 +36,7 @@ import java.util.List;
 public class ItemRequestService {
 
     private final ItemRequestRepository requestRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final ItemRequestMapper requestMapper;
 
     private final ItemRepository itemRepository;
@@ -42,8 +46,9 @@ public class ItemRequestService {
 
     @Transient
     public ItemRequestDto createRequest(Long userId, ItemRequestDto itemRequestDto) {
-        User owner = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        User owner = userCache.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
         ItemRequest itemRequest = requestMapper.fromDto(itemRequestDto);
+        itemRequest.setId(0);
         itemRequest.setRequest(owner);
         itemRequest.setCreated(LocalDateTime.now());
         log.info("Item request create {}", itemRequest);
@@ -52,37 +57,102 @@ public class ItemRequestService {
 
     @Transactional(readOnly = true)
     public List<RequestInfoDto> getAllRequestsForOwner(Long userId) {
-        User request = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        User request = userCache.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
         log.info("Get all item requests by user id {}", userId);
         Sort sort = Sort.by("created").descending();
         List<RequestInfoDto> requests = requestMapper.toListInfoDto(requestRepository.findAllByRequestId(request.getId(), sort));
-        requests.forEach(req -> req.setItems(getItemsByReq(req.getRequestId())));
+        setItems(requests);
         return requests;
     }
 
     @Transactional(readOnly = true)
     public List<RequestInfoDto> getAllRequests(Long userId, Integer from, Integer size) {
-        userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
-        Sort sort = Sort.by("created").descending();
+        userCache.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        Sort sort = Sort.by("created").descending().and(Sort.by("id").descending());
         Pageable sortedByCreated = PageRequest.of(from / size, size, sort);
         log.info("Get all request user id = {} and page = {} and size = {}", userId, from, size);
         List<RequestInfoDto> itemRequests = requestMapper.toListInfoDto(
                 requestRepository.findByRequestIdNot(userId, sortedByCreated));
         log.info("Items req size = {}", itemRequests.size());
-        itemRequests.forEach(req -> req.setItems(getItemsByReq(req.getRequestId())));
+        setItems(itemRequests);
+        return itemRequests;
+    }
+
+    @Transactional(readOnly = true)
+    public List<RequestInfoDto> getAllRequestsAfter(Long userId, PageCursor after, Integer size) {
+        userCache.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        after.requireSortKey();
+        Sort sort = Sort.by("created").descending().and(Sort.by("id").descending());
+        log.info("Get all request user id = {} after = {} and size = {}", userId, after, size);
+        List<RequestInfoDto> itemRequests = requestMapper.toListInfoDto(
+                requestRepository.seekByRequestIdNot(userId, after.getSortKey(), after.getId(),
+                        PageRequest.of(0, size, sort)));
+        setItems(itemRequests);
         return itemRequests;
     }
 
     @Transactional(readOnly = true)
     public RequestInfoDto getItemRequestById(Long userId, Long requestId) {
-        userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        userCache.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
         log.info("Get item requests by id = {}", requestId);
         RequestInfoDto itemRequest = requestMapper.toInfoDto(requestRepository.findById(requestId)
                 .orElseThrow(() -> new ItemRequestNotFoundException(requestId)));
-        itemRequest.setItems(getItemsByReq(itemRequest.getRequestId()));
+        itemRequest.setItems(getItemsByReq(itemRequest.getId()));
         return itemRequest;
     }
 
+    /**
+     * ETag запроса по его версии и версиям вещей, добавленных в ответ; null, если запроса нет
+     */
+    @Transactional(readOnly = true)
+    public String getItemRequestTag(Long userId, Long requestId) {
+        userCache.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        return requestRepository.findVersionById(requestId)
+                .map(version -> EntityTag.of("request", requestId, version,
+                        itemRepository.summarizeVersionsByRequestId(requestId).toTag()))
+                .orElse(null);
+    }
+
+    /**
+     * ETag списка собственных запросов по сводке версий запросов пользователя и добавленных к ним вещей
+     */
+    @Transactional(readOnly = true)
+    public String getOwnRequestsTag(Long userId) {
+        userCache.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        return EntityTag.of("requests", userId, requestRepository.summarizeVersionsByRequestId(userId).toTag(),
+                itemRepository.summarizeVersionsByRequestRequestId(userId).toTag());
+    }
+
+    /**
+     * ETag списка чужих запросов по сводке версий запросов других пользователей и добавленных к ним вещей
+     */
+    @Transactional(readOnly = true)
+    public String getAllRequestsTag(Long userId) {
+        userCache.findById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        return EntityTag.of("requests-all", userId, requestRepository.summarizeVersionsByRequestIdNot(userId).toTag(),
+                itemRepository.summarizeVersionsByRequestRequestIdNot(userId).toTag());
+    }
+
+    /**
+     * Вещи, добавленные в ответ на запросы страницы, загружаются одним запросом и раскладываются по id запроса
+     */
+    private void setItems(List<RequestInfoDto> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        List<Long> requestIds = requests.stream().map(RequestInfoDto::getId).collect(Collectors.toList());
+        Map<Long, List<Item>> itemsByRequest = itemRepository.findAllByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+        log.info("Items size = {} for {} requests", itemsByRequest.values().stream().mapToInt(List::size).sum(),
+                requests.size());
+        requests.forEach(req -> {
+            List<Item> items = itemsByRequest.get(req.getId());
+            if (items != null) {
+                req.setItems(itemMapper.toListDto(items));
+            }
+        });
+    }
+
     private List<ItemDto> getItemsByReq(Long requestId) {
         List<Item> items = itemRepository.findAllByRequestId(requestId);
         log.info("Items size = {}", items.size());
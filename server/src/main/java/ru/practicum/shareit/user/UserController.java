@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -28,7 +29,10 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getUserById(@PathVariable long id) {
+    public ResponseEntity<UserDto> getUserById(@PathVariable long id, WebRequest request) {
+        if (request.checkNotModified(userService.getUserTag(id))) {
+            return null;
+        }
         return ResponseEntity.ok(userService.getUserById(id));
     }
 
@@ -43,7 +47,10 @@ public class UserController {
     }
 
     @GetMapping
-    public List<UserDto> getAllUsers() {
+    public List<UserDto> getAllUsers(WebRequest request) {
+        if (request.checkNotModified(userService.getAllUsersTag())) {
+            return null;
+        }
         return userService.getAllUsers();
     }
 }
@@ -12,9 +12,17 @@ import javax.persistence.*;
 @Table(name = "users")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private long id;
 
+    /**
+     * Версия строки, растёт при каждом изменении; из неё строится ETag
+     */
+    @Version
+    @Column(name = "version")
+    private long version;
+
     @Column(name = "name")
     private String name;
 
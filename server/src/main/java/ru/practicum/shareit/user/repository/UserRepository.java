@@ -1,9 +1,21 @@
 package ru.practicum.shareit.user.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.etag.VersionSummary;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Optional;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT COUNT(u) AS total, COALESCE(SUM(u.version), 0) AS versions, COALESCE(MAX(u.id), 0) AS maxId " +
+            "FROM User u")
+    VersionSummary summarizeVersions();
 }
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.user.service;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.GenerationGuardedCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.Optional;
+
+/**
+ * Кэш пользователей для проверки заголовка X-Sharer-User-Id.
+ * Размер и время жизни записей задаются в spring.cache.caffeine.spec.
+ * В кэше хранится неизменяемый снимок пользователя, каждый вызов получает свою копию сущности.
+ * Запись сбрасывается после фиксации изменения или удаления пользователя в {@link UserService};
+ * снимок, загруженный до сброса, в кэш не кладётся (см. {@link GenerationGuardedCache}).
+ */
+@Component
+public class UserCache {
+
+    public static final String USERS = "users";
+
+    private final GenerationGuardedCache cache;
+
+    private final UserRepository userRepository;
+
+    public UserCache(CacheManager cacheManager, UserRepository userRepository) {
+        this.cache = new GenerationGuardedCache(cacheManager.getCache(USERS));
+        this.userRepository = userRepository;
+    }
+
+    public Optional<User> findById(long userId) {
+        Snapshot snapshot = cache.get(userId, Snapshot.class);
+        if (snapshot == null) {
+            long generation = cache.generation(userId);
+            Optional<User> user = userRepository.findById(userId);
+            if (user.isEmpty()) {
+                return user;
+            }
+            snapshot = new Snapshot(user.get());
+            cache.putIfUnchanged(userId, generation, snapshot);
+        }
+        return Optional.of(snapshot.toUser());
+    }
+
+    /**
+     * Сброс записи после фиксации текущей транзакции, без транзакции — сразу
+     */
+    public void evictAfterCommit(long userId) {
+        cache.invalidateAfterCommit(userId);
+    }
+
+    /**
+     * Неизменяемый снимок пользователя
+     */
+    private static final class Snapshot {
+
+        private final long id;
+
+        private final long version;
+
+        private final String name;
+
+        private final String email;
+
+        private Snapshot(User user) {
+            this.id = user.getId();
+            this.version = user.getVersion();
+            this.name = user.getName();
+            this.email = user.getEmail();
+        }
+
+        private User toUser() {
+            User user = new User();
+            user.setId(id);
+            user.setVersion(version);
+            user.setName(name);
+            user.setEmail(email);
+            return user;
+        }
+    }
+}
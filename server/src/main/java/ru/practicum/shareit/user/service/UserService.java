@@ -2,9 +2,13 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.comment.repository.CommentRepository;
+import ru.practicum.shareit.etag.EntityTag;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.service.ItemChangedEvent;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -19,10 +23,14 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final UserCache userCache;
+    private final CommentRepository commentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public UserDto createUser(UserDto userDto) {
         User user = userMapper.fromDto(userDto);
+        user.setId(0);
         return userMapper.toDto(userRepository.save(user));
     }
 
@@ -31,17 +39,34 @@ public class UserService {
         return userMapper.toDto(userRepository.findById(id).orElseThrow(() -> new UserNotFoundException(id)));
     }
 
+    /**
+     * ETag пользователя по версии строки; null, если пользователя нет
+     */
+    @Transactional(readOnly = true)
+    public String getUserTag(long id) {
+        return userRepository.findVersionById(id)
+                .map(version -> EntityTag.of("user", id, version))
+                .orElse(null);
+    }
+
+    @Transactional(readOnly = true)
+    public String getAllUsersTag() {
+        return EntityTag.of("users", userRepository.summarizeVersions().toTag());
+    }
+
     @Transactional
     public UserDto updateUser(long id, UserDto userDto) {
         User user = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException(id));
         String name = userDto.getName();
         String email = userDto.getEmail();
-        if (name != null) {
+        if (name != null && !name.equals(user.getName())) {
             user.setName(name);
+            publishCommentedItemsChanged(id);
         }
         if (email != null) {
             user.setEmail(email);
         }
+        userCache.evictAfterCommit(id);
         return userMapper.toDto(userRepository.save(user));
     }
 
@@ -49,6 +74,7 @@ public class UserService {
     public void deleteUserById(long id) {
         userRepository.findById(id).orElseThrow(() -> new UserNotFoundException(id));
         userRepository.deleteById(id);
+        userCache.evictAfterCommit(id);
     }
 
     @Transactional(readOnly = true)
@@ -56,4 +82,12 @@ public class UserService {
         return userMapper.toDtoList(userRepository.findAll());
     }
 
+    /**
+     * Карточки вещей с комментариями пользователя показывают его имя и сбрасываются из кэша после фиксации
+     */
+    private void publishCommentedItemsChanged(long userId) {
+        commentRepository.findItemIdsByAuthorId(userId)
+                .forEach(itemId -> eventPublisher.publishEvent(new ItemChangedEvent(itemId)));
+    }
+
 }
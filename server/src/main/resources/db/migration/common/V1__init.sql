@@ -0,0 +1,51 @@
+-- шаг совпадает с allocationSize в @SequenceGenerator сущностей
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE comments_seq START WITH 1 INCREMENT BY 50;
+
+
+CREATE TABLE users (
+	id BIGINT NOT NULL PRIMARY KEY,
+	name varchar NOT NULL,
+	email varchar NOT NULL UNIQUE
+);
+
+CREATE TABLE requests (
+	id BIGINT NOT NULL PRIMARY KEY,
+	description varchar NOT NULL,
+	requestor_id BIGINT NOT NULL REFERENCES users ON DELETE CASCADE,
+	created date NOT NULL
+);
+
+CREATE TABLE items (
+	id BIGINT NOT NULL PRIMARY KEY,
+	name varchar NOT NULL,
+	description varchar NOT NULL,
+	is_available boolean NOT NULL,
+	owner_id BIGINT NOT NULL REFERENCES users ON DELETE CASCADE,
+	request_id BIGINT REFERENCES requests,
+	last_booking_id BIGINT,
+    next_booking_id BIGINT
+);
+
+CREATE TABLE bookings (
+	id BIGINT NOT NULL PRIMARY KEY,
+	start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+	end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+	item_id BIGINT NOT NULL REFERENCES items ON DELETE CASCADE,
+	booker_id BIGINT NOT NULL REFERENCES users ON DELETE CASCADE,
+	status varchar NOT NULL
+);
+
+-- поиск пересекающихся бронирований вещи и последнего/следующего бронирования
+CREATE INDEX bookings_item_id_start_date_idx ON bookings (item_id, start_date);
+
+CREATE TABLE comments (
+	id BIGINT NOT NULL PRIMARY KEY,
+	text varchar NOT NULL,
+	item_id BIGINT NOT NULL REFERENCES items ON DELETE CASCADE,
+	author_id BIGINT NOT NULL REFERENCES users ON DELETE CASCADE,
+	created TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
@@ -0,0 +1,14 @@
+-- списки бронирований пользователя: booker_id = ? [AND status = ?] ORDER BY start_date DESC
+CREATE INDEX bookings_booker_id_start_date_idx ON bookings (booker_id, start_date DESC);
+
+-- последнее/следующее бронирование вещи, пересечения и календарь: item_id = ? AND status ... AND start_date ...
+DROP INDEX IF EXISTS bookings_item_id_start_date_idx;
+CREATE INDEX bookings_item_id_status_start_date_idx ON bookings (item_id, status, start_date);
+
+-- вещи владельца по страницам и бронирования вещей владельца
+CREATE INDEX items_owner_id_id_idx ON items (owner_id, id);
+
+-- ответы на запросы и комментарии к вещам
+CREATE INDEX items_request_id_idx ON items (request_id);
+CREATE INDEX comments_item_id_idx ON comments (item_id);
+CREATE INDEX requests_requestor_id_created_idx ON requests (requestor_id, created DESC);
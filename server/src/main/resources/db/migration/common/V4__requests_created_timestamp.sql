@@ -0,0 +1,2 @@
+-- ItemRequest.created хранит дату и время, как и остальные поля created
+ALTER TABLE requests ALTER COLUMN created SET DATA TYPE TIMESTAMP WITHOUT TIME ZONE;
@@ -0,0 +1,9 @@
+-- заполнение items.last_booking_id / next_booking_id для вещей, забронированных до появления проекции;
+-- дальше ссылки поддерживает ItemBookingService (подтверждение бронирований и сдвиг по времени)
+UPDATE items SET
+    last_booking_id = (SELECT b.id FROM bookings b
+        WHERE b.item_id = items.id AND b.status = 'APPROVED' AND b.start_date < LOCALTIMESTAMP
+        ORDER BY b.start_date DESC LIMIT 1),
+    next_booking_id = (SELECT b.id FROM bookings b
+        WHERE b.item_id = items.id AND b.status = 'APPROVED' AND b.start_date > LOCALTIMESTAMP
+        ORDER BY b.start_date LIMIT 1);
@@ -0,0 +1,17 @@
+-- базы, созданные старым schema.sql, принимаются на версии 1 (baseline-on-migrate), и V1 в них не выполняется:
+-- id там IDENTITY, последовательностей нет. Последовательности начинаются после существующих id с запасом
+-- на allocationSize, чтобы пул Hibernate не выдал уже занятые id. В базах, созданных V1, ничего не меняется
+ALTER TABLE items ADD COLUMN IF NOT EXISTS last_booking_id BIGINT;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS next_booking_id BIGINT;
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM users) INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM requests) INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM items) INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM bookings) INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM comments) INCREMENT BY 50;
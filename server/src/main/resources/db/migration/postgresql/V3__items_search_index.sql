@@ -0,0 +1,4 @@
+-- полнотекстовый поиск вещей (PostgresItemSearchEngine); индекс уже есть в базах, созданных до перехода на миграции
+CREATE INDEX IF NOT EXISTS items_search_idx ON items USING GIN (
+    (setweight(to_tsvector('simple', name), 'A') || setweight(to_tsvector('simple', description), 'B'))
+);
@@ -0,0 +1,24 @@
+-- базы, созданные старым schema.sql, принимаются на версии 1 (baseline-on-migrate), и V1 в них не выполняется:
+-- id там IDENTITY, последовательностей нет. Последовательности начинаются после существующих id с запасом
+-- на allocationSize, чтобы пул Hibernate не выдал уже занятые id. В базах, созданных V1, ничего не меняется
+ALTER TABLE items ADD COLUMN IF NOT EXISTS last_booking_id BIGINT;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS next_booking_id BIGINT;
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+DO $$
+DECLARE
+    t varchar;
+    start_value bigint;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['users', 'requests', 'items', 'bookings', 'comments'] LOOP
+        IF to_regclass(t || '_seq') IS NULL THEN
+            EXECUTE format('SELECT COALESCE(MAX(id), 0) + 50 FROM %I', t) INTO start_value;
+            EXECUTE format('CREATE SEQUENCE %I START WITH %s INCREMENT BY 50', t || '_seq', start_value);
+        END IF;
+    END LOOP;
+END $$;
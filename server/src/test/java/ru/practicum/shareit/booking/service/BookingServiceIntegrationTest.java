@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.model.BookingState;
@@ -14,14 +15,18 @@ import ru.practicum.shareit.data.BookingTestData;
 import ru.practicum.shareit.data.ItemRequestTestData;
 import ru.practicum.shareit.data.ItemTestData;
 import ru.practicum.shareit.data.UserTestData;
+import ru.practicum.shareit.exception.BookingConflictException;
+import ru.practicum.shareit.exception.CursorValidationException;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -137,7 +142,7 @@ public class BookingServiceIntegrationTest {
         UserDto userDto1 = userService.createUser(UserTestData.getUserDtoOwner());
         itemRequestService.createRequest(userDto.getId(), ItemRequestTestData.getItemReqDto());
         ItemDto item = itemService.createItem(ItemTestData.getItemDto(), userDto.getId());
-        BookingRequestDto bookingRequestDto = BookingTestData.getBookinReqDto();
+        BookingRequestDto bookingRequestDto = truncatedToMicros(BookingTestData.getBookinReqDto());
         bookingRequestDto.setItemId(item.getId());
 
         BookingDto bookingDto = bookingService.createBooking(userDto1.getId(), bookingRequestDto);
@@ -147,6 +152,114 @@ public class BookingServiceIntegrationTest {
         assertEquals(List.of(bookingDto), result);
     }
 
+    @Test
+    void getBookingsForAllItemsPagedAcrossItems() {
+        UserDto userDto = userService.createUser(UserTestData.getUserDto());
+        UserDto userDto1 = userService.createUser(UserTestData.getUserDtoOwner());
+        itemRequestService.createRequest(userDto.getId(), ItemRequestTestData.getItemReqDto());
+        ItemDto item = itemService.createItem(ItemTestData.getItemDto(), userDto.getId());
+        ItemDto itemDto1 = ItemTestData.getItemDto();
+        itemDto1.setId(null);
+        ItemDto item1 = itemService.createItem(itemDto1, userDto.getId());
+        BookingRequestDto bookingRequestDto = truncatedToMicros(BookingTestData.getBookinReqDto());
+        bookingRequestDto.setItemId(item.getId());
+        BookingDto bookingDto = bookingService.createBooking(userDto1.getId(), bookingRequestDto);
+        BookingRequestDto bookingRequestDto1 = truncatedToMicros(BookingTestData.getBookinReqDto());
+        bookingRequestDto1.setItemId(item1.getId());
+        bookingRequestDto1.setStart(bookingRequestDto.getStart().plusMinutes(1));
+        BookingDto bookingDto1 = bookingService.createBooking(userDto1.getId(), bookingRequestDto1);
+
+        List<BookingDto> firstPage = bookingService.getBookingsForAllItems(userDto.getId(),
+                BookingState.ALL, 0, 1);
+        List<BookingDto> secondPage = bookingService.getBookingsForAllItems(userDto.getId(),
+                BookingState.ALL, 1, 1);
+
+        assertEquals(List.of(bookingDto1), firstPage);
+        assertEquals(List.of(bookingDto), secondPage);
+    }
+
+    @Test
+    void createBookingsReturnsResultPerEntry() {
+        UserDto owner = userService.createUser(UserTestData.getUserDto());
+        UserDto booker = userService.createUser(UserTestData.getUserDtoOwner());
+        itemRequestService.createRequest(owner.getId(), ItemRequestTestData.getItemReqDto());
+        ItemDto item = itemService.createItem(ItemTestData.getItemDto(), owner.getId());
+        ItemDto bookerItemDto = ItemTestData.getItemDto();
+        bookerItemDto.setId(null);
+        ItemDto bookerItem = itemService.createItem(bookerItemDto, booker.getId());
+        BookingRequestDto valid = BookingTestData.getBookinReqDto();
+        valid.setItemId(item.getId());
+        BookingRequestDto missing = BookingTestData.getBookinReqDto();
+        missing.setItemId(999L);
+        BookingRequestDto own = BookingTestData.getBookinReqDto();
+        own.setItemId(bookerItem.getId());
+        BookingRequestDto later = BookingTestData.getBookinReqDto();
+        later.setItemId(item.getId());
+        later.setStart(valid.getEnd().plusMinutes(1));
+        later.setEnd(valid.getEnd().plusMinutes(5));
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(booker.getId(),
+                List.of(valid, missing, own, later));
+
+        assertEquals(4, results.size());
+        assertEquals(201, results.get(0).getStatus());
+        assertEquals(404, results.get(1).getStatus());
+        assertEquals(404, results.get(2).getStatus());
+        assertEquals(201, results.get(3).getStatus());
+        assertEquals(3, results.get(3).getIndex());
+        List<BookingDto> bookings = bookingService.getBookingsForCurrentUser(booker.getId(), BookingState.ALL, 0, 10);
+        assertEquals(2, bookings.size());
+        assertEquals(results.get(0).getBooking().getId(), bookings.get(1).getId());
+        assertEquals(results.get(3).getBooking().getId(), bookings.get(0).getId());
+    }
+
+    @Test
+    void createBookingWhenItemAlreadyBooked() {
+        UserDto owner = userService.createUser(UserTestData.getUserDto());
+        UserDto booker = userService.createUser(UserTestData.getUserDtoOwner());
+        itemRequestService.createRequest(owner.getId(), ItemRequestTestData.getItemReqDto());
+        ItemDto item = itemService.createItem(ItemTestData.getItemDto(), owner.getId());
+        BookingRequestDto bookingRequestDto = BookingTestData.getBookinReqDto();
+        bookingRequestDto.setItemId(item.getId());
+        bookingService.createBooking(booker.getId(), bookingRequestDto);
+        BookingRequestDto overlapping = BookingTestData.getBookinReqDto();
+        overlapping.setItemId(item.getId());
+        overlapping.setStart(bookingRequestDto.getStart().plusMinutes(2));
+        overlapping.setEnd(bookingRequestDto.getEnd().plusMinutes(2));
+
+        assertThrows(BookingConflictException.class,
+                () -> bookingService.createBooking(booker.getId(), overlapping));
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(booker.getId(), List.of(overlapping));
+        assertEquals(409, results.get(0).getStatus());
+    }
+
+    @Test
+    void getBookingsForCurrentUserAfterCursor() {
+        UserDto userDto = userService.createUser(UserTestData.getUserDto());
+        UserDto userDto1 = userService.createUser(UserTestData.getUserDtoOwner());
+        itemRequestService.createRequest(userDto.getId(), ItemRequestTestData.getItemReqDto());
+        ItemDto item = itemService.createItem(ItemTestData.getItemDto(), userDto.getId());
+        BookingRequestDto bookingRequestDto = BookingTestData.getBookinReqDto();
+        bookingRequestDto.setItemId(item.getId());
+        bookingRequestDto.setStart(LocalDateTime.of(2100, 1, 1, 10, 0));
+        bookingRequestDto.setEnd(LocalDateTime.of(2100, 1, 1, 11, 0));
+        BookingDto bookingDto = bookingService.createBooking(userDto1.getId(), bookingRequestDto);
+        bookingRequestDto.setStart(LocalDateTime.of(2100, 1, 2, 10, 0));
+        bookingRequestDto.setEnd(LocalDateTime.of(2100, 1, 2, 11, 0));
+        BookingDto bookingDto1 = bookingService.createBooking(userDto1.getId(), bookingRequestDto);
+
+        List<BookingDto> firstPage = bookingService.getBookingsForCurrentUser(userDto1.getId(), BookingState.ALL, 0, 1);
+        BookingDto last = firstPage.get(firstPage.size() - 1);
+        List<BookingDto> secondPage = bookingService.getBookingsForCurrentUserAfter(userDto1.getId(), BookingState.ALL,
+                new PageCursor(last.getStart(), last.getId()), 1);
+
+        assertThat(firstPage.get(0).getId(), equalTo(bookingDto1.getId()));
+        assertThat(secondPage.get(0).getId(), equalTo(bookingDto.getId()));
+        assertThrows(CursorValidationException.class, () -> bookingService.getBookingsForCurrentUserAfter(
+                userDto1.getId(), BookingState.ALL, new PageCursor(null, last.getId()), 1));
+    }
+
     @Test
     void getBooking() {
         UserDto userDto = userService.createUser(UserTestData.getUserDto());
@@ -161,4 +274,14 @@ public class BookingServiceIntegrationTest {
 
         assertEquals(bookingDto, result);
     }
+
+    /**
+     * База хранит время с точностью до микросекунд, поэтому прочитанные бронирования сравниваются
+     * с бронированиями, созданными без наносекунд
+     */
+    private static BookingRequestDto truncatedToMicros(BookingRequestDto bookingRequestDto) {
+        bookingRequestDto.setStart(bookingRequestDto.getStart().truncatedTo(ChronoUnit.MICROS));
+        bookingRequestDto.setEnd(bookingRequestDto.getEnd().truncatedTo(ChronoUnit.MICROS));
+        return bookingRequestDto;
+    }
 }
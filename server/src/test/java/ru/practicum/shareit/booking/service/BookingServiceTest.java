@@ -1,7 +1,10 @@
 package ru.practicum.shareit.booking.service;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
@@ -12,25 +15,34 @@ import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.data.BookingTestData;
 import ru.practicum.shareit.data.ItemTestData;
 import ru.practicum.shareit.data.UserTestData;
+import ru.practicum.shareit.exception.BookingConflictException;
 import ru.practicum.shareit.exception.BookingNotFoundException;
 import ru.practicum.shareit.exception.BookingValidationException;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.availability.ItemAvailabilityIndex;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingService;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -48,9 +60,13 @@ class BookingServiceTest {
 
     private ItemMapper itemMapper = mock(ItemMapper.class);
 
+    private ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
 
-    private final BookingService bookingService = new BookingService(bookingRepository, userRepository,
-            itemRepository, bookingMapper, userMapper, itemMapper);
+
+    private final BookingService bookingService = new BookingService(bookingRepository,
+            new UserCache(new ConcurrentMapCacheManager(), userRepository), itemRepository, bookingMapper, userMapper, itemMapper,
+            new ItemBookingService(itemRepository, bookingRepository, eventPublisher),
+            new ItemAvailabilityIndex(new ConcurrentMapCacheManager(), bookingRepository));
 
     @Test
     void createBookingWhenDataCorrect() {
@@ -58,19 +74,24 @@ class BookingServiceTest {
         BookingRequestDto bookingRequestDto = BookingTestData.getBookinReqDto();
         BookingDto bookingDto = BookingTestData.getBookingDto();
 
-        when(itemRepository.findById(bookingRequestDto.getItemId()))
-                .thenReturn(Optional.of(ItemTestData.getItem()));
+        Item item = ItemTestData.getItem();
+        User user = UserTestData.getUser();
+        when(itemRepository.findByIdForUpdate(bookingRequestDto.getItemId()))
+                .thenReturn(Optional.of(item));
         when(bookingRepository.save(any())).thenReturn(BookingTestData.getBooking());
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(UserTestData.getUser()));
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
 
         when(bookingMapper.toBookingDto(any(BookingRequestDto.class))).thenReturn(bookingDto);
+        when(bookingMapper.fromNewDto(any())).thenReturn(new Booking());
         when(userMapper.toClientDto(any(User.class))).thenReturn(bookingDto.getBooker());
         when(itemMapper.toClientDto(any())).thenReturn(bookingDto.getItem());
 
         BookingDto result = bookingService.createBooking(userId, bookingRequestDto);
 
         assertEquals(bookingDto, result);
+        verify(bookingRepository).save(argThat(booking -> booking.getItem() == item
+                && booking.getBooker().getId() == user.getId()));
     }
 
     @Test
@@ -88,7 +109,7 @@ class BookingServiceTest {
 
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(UserTestData.getUser()));
 
-        when(itemRepository.findById(bookingRequestDto.getItemId()))
+        when(itemRepository.findByIdForUpdate(bookingRequestDto.getItemId()))
                 .thenReturn(Optional.empty());
 
         ItemNotFoundException itemError = assertThrows(ItemNotFoundException.class,
@@ -96,7 +117,7 @@ class BookingServiceTest {
         //when item not found
         assertEquals(bookingRequestDto.getItemId(), itemError.getItemId());
         Item itemErrors = ItemTestData.getItemError();
-        when(itemRepository.findById(bookingRequestDto.getItemId()))
+        when(itemRepository.findByIdForUpdate(bookingRequestDto.getItemId()))
                 .thenReturn(Optional.of(itemErrors));
         ItemNotFoundException itemErrorOwner = assertThrows(ItemNotFoundException.class,
                 () -> bookingService.createBooking(userId, bookingRequestDto));
@@ -111,6 +132,57 @@ class BookingServiceTest {
                 itemAvailableFalse.getClass().getCanonicalName());
     }
 
+    @Test
+    void createBookingsChecksActiveBookingsWithOneQuery() {
+        Long userId = 1L;
+        Booking existing = BookingTestData.getBooking();
+        existing.setStart(LocalDateTime.now().plusHours(1));
+        existing.setEnd(LocalDateTime.now().plusHours(2));
+        BookingRequestDto overlapping = BookingTestData.getBookinReqDto();
+        overlapping.setStart(existing.getStart().plusMinutes(10));
+        overlapping.setEnd(existing.getEnd().plusMinutes(10));
+        BookingRequestDto before = BookingTestData.getBookinReqDto();
+        BookingRequestDto after = BookingTestData.getBookinReqDto();
+        after.setStart(existing.getEnd());
+        after.setEnd(existing.getEnd().plusHours(1));
+
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(UserTestData.getUser()));
+        when(itemRepository.findAllByIdForUpdate(any())).thenReturn(List.of(ItemTestData.getItem()));
+        when(bookingRepository.findAllByItemIdInAndStatusInAndStartBeforeAndEndAfter(any(), any(), any(), any()))
+                .thenReturn(List.of(existing));
+        when(bookingMapper.toBookingDto(any())).thenAnswer(invocation -> new BookingDto());
+        when(bookingMapper.fromNewDto(any())).thenAnswer(invocation -> BookingTestData.getBooking());
+        when(bookingRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(userId, List.of(overlapping, before, after));
+
+        assertEquals(409, results.get(0).getStatus());
+        assertEquals(201, results.get(1).getStatus());
+        assertEquals(201, results.get(2).getStatus());
+        verify(bookingRepository).findAllByItemIdInAndStatusInAndStartBeforeAndEndAfter(
+                Set.of(1L), BookingService.ACTIVE_STATUSES, after.getEnd(), before.getStart());
+        verify(bookingRepository, never()).existsByItemIdAndStatusInAndStartBeforeAndEndAfter(anyLong(), any(),
+                any(), any());
+    }
+
+    @Test
+    void createBookingWhenItemAlreadyBooked() {
+        Long userId = 1L;
+        BookingRequestDto bookingRequestDto = BookingTestData.getBookinReqDto();
+
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(UserTestData.getUser()));
+        when(itemRepository.findByIdForUpdate(bookingRequestDto.getItemId()))
+                .thenReturn(Optional.of(ItemTestData.getItem()));
+        when(bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(anyLong(), any(), any(), any()))
+                .thenReturn(true);
+
+        BookingConflictException conflict = assertThrows(BookingConflictException.class,
+                () -> bookingService.createBooking(userId, bookingRequestDto));
+
+        assertEquals(bookingRequestDto.getItemId(), conflict.getItemId());
+        verify(bookingRepository, never()).save(any());
+    }
+
     @Test
     void updateBookingWhenDataCorrect() {
         Long userId = 2L;
@@ -190,12 +262,10 @@ class BookingServiceTest {
         BookingState state = BookingState.ALL;
         Integer from = 0;
         Integer size = 1;
-        Booking booking = BookingTestData.getBooking();
         BookingDto bookingDto = BookingTestData.getBookingDto();
         List<BookingDto> bookingDtoList = List.of(bookingDto);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(UserTestData.getUser()));
-        when(bookingRepository.findAllByBookerId(anyLong(), any())).thenReturn(List.of(booking));
-        when(bookingMapper.toListDto(List.of(booking))).thenReturn(bookingDtoList);
+        when(bookingRepository.findAllByBookerId(anyLong(), any())).thenReturn(bookingDtoList);
 
         List<BookingDto> resultList = bookingService.getBookingsForCurrentUser(userId, state, from, size);
 
@@ -208,12 +278,10 @@ class BookingServiceTest {
         BookingState state = BookingState.PAST;
         Integer from = 0;
         Integer size = 1;
-        Booking booking = BookingTestData.getBooking();
         BookingDto bookingDto = BookingTestData.getBookingDto();
         List<BookingDto> bookingDtoList = List.of(bookingDto);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(UserTestData.getUser()));
-        when(bookingRepository.findAllByBookerIdAndEndBefore(anyLong(), any(), any())).thenReturn(List.of(booking));
-        when(bookingMapper.toListDto(List.of(booking))).thenReturn(bookingDtoList);
+        when(bookingRepository.findAllByBookerIdAndEndBefore(anyLong(), any(), any())).thenReturn(bookingDtoList);
 
         List<BookingDto> resultList = bookingService.getBookingsForCurrentUser(userId, state, from, size);
 
@@ -226,12 +294,10 @@ class BookingServiceTest {
         BookingState state = BookingState.FUTURE;
         Integer from = 0;
         Integer size = 1;
-        Booking booking = BookingTestData.getBooking();
         BookingDto bookingDto = BookingTestData.getBookingDto();
         List<BookingDto> bookingDtoList = List.of(bookingDto);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(UserTestData.getUser()));
-        when(bookingRepository.findAllByBookerIdAndStartAfter(anyLong(), any(), any())).thenReturn(List.of(booking));
-        when(bookingMapper.toListDto(List.of(booking))).thenReturn(bookingDtoList);
+        when(bookingRepository.findAllByBookerIdAndStartAfter(anyLong(), any(), any())).thenReturn(bookingDtoList);
 
         List<BookingDto> resultList = bookingService.getBookingsForCurrentUser(userId, state, from, size);
 
@@ -244,12 +310,10 @@ class BookingServiceTest {
         BookingState state = BookingState.WAITING;
         Integer from = 0;
         Integer size = 1;
-        Booking booking = BookingTestData.getBooking();
         BookingDto bookingDto = BookingTestData.getBookingDto();
         List<BookingDto> bookingDtoList = List.of(bookingDto);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(UserTestData.getUser()));
-        when(bookingRepository.findAllByBookerIdAndStatus(anyLong(), any(), any())).thenReturn(List.of(booking));
-        when(bookingMapper.toListDto(List.of(booking))).thenReturn(bookingDtoList);
+        when(bookingRepository.findAllByBookerIdAndStatus(anyLong(), any(), any())).thenReturn(bookingDtoList);
 
         List<BookingDto> resultList = bookingService.getBookingsForCurrentUser(userId, state, from, size);
 
@@ -262,12 +326,10 @@ class BookingServiceTest {
         BookingState state = BookingState.ALL;
         Integer from = 0;
         Integer size = 1;
-        Booking booking = BookingTestData.getBooking();
         BookingDto bookingDto = BookingTestData.getBookingDto();
         List<BookingDto> bookingDtoList = List.of(bookingDto);
         when(userRepository.findById(anyLong())).thenThrow(new UserNotFoundException(userId));
-        when(bookingRepository.findAllByBookerId(anyLong(), any())).thenReturn(List.of(booking));
-        when(bookingMapper.toListDto(List.of(booking))).thenReturn(bookingDtoList);
+        when(bookingRepository.findAllByBookerId(anyLong(), any())).thenReturn(bookingDtoList);
 
         UserNotFoundException resultError = assertThrows(UserNotFoundException.class,
                 () -> bookingService.getBookingsForCurrentUser(userId, state, from, size));
@@ -281,14 +343,10 @@ class BookingServiceTest {
         BookingState state = BookingState.ALL;
         Integer from = 0;
         Integer size = 1;
-        Booking booking = BookingTestData.getBooking();
-        List<Item> items = List.of(ItemTestData.getItem());
         BookingDto bookingDto = BookingTestData.getBookingDto();
         List<BookingDto> bookingDtoList = List.of(bookingDto);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(UserTestData.getUser()));
-        when(itemRepository.findAllByOwnerId(any())).thenReturn(items);
-        when(bookingRepository.findAllByItemId(anyLong(), any(Pageable.class))).thenReturn(List.of(booking));
-        when(bookingMapper.toListDto(List.of(booking))).thenReturn(bookingDtoList);
+        when(bookingRepository.findAllByItemOwnerId(anyLong(), any(Pageable.class))).thenReturn(bookingDtoList);
 
         List<BookingDto> resultList = bookingService.getBookingsForAllItems(userId, state, from, size);
 
@@ -301,14 +359,10 @@ class BookingServiceTest {
         BookingState state = BookingState.CURRENT;
         Integer from = 0;
         Integer size = 1;
-        Booking booking = BookingTestData.getBooking();
-        List<Item> items = List.of(ItemTestData.getItem());
         BookingDto bookingDto = BookingTestData.getBookingDto();
         List<BookingDto> bookingDtoList = List.of(bookingDto);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(UserTestData.getUser()));
-        when(itemRepository.findAllByOwnerId(any())).thenReturn(items);
-        when(bookingRepository.findAllCurrentByItem(any(), any())).thenReturn(List.of(booking));
-        when(bookingMapper.toListDto(List.of(booking))).thenReturn(bookingDtoList);
+        when(bookingRepository.findAllCurrentByOwner(anyLong(), any())).thenReturn(bookingDtoList);
 
         List<BookingDto> resultList = bookingService.getBookingsForAllItems(userId, state, from, size);
 
@@ -321,14 +375,10 @@ class BookingServiceTest {
         BookingState state = BookingState.PAST;
         Integer from = 0;
         Integer size = 1;
-        Booking booking = BookingTestData.getBooking();
-        List<Item> items = List.of(ItemTestData.getItem());
         BookingDto bookingDto = BookingTestData.getBookingDto();
         List<BookingDto> bookingDtoList = List.of(bookingDto);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(UserTestData.getUser()));
-        when(itemRepository.findAllByOwnerId(any())).thenReturn(items);
-        when(bookingRepository.findAllByItemIdAndEndBefore(any(), any(), any())).thenReturn(List.of(booking));
-        when(bookingMapper.toListDto(List.of(booking))).thenReturn(bookingDtoList);
+        when(bookingRepository.findAllByItemOwnerIdAndEndBefore(anyLong(), any(), any())).thenReturn(bookingDtoList);
 
         List<BookingDto> resultList = bookingService.getBookingsForAllItems(userId, state, from, size);
 
@@ -341,14 +391,10 @@ class BookingServiceTest {
         BookingState state = BookingState.FUTURE;
         Integer from = 0;
         Integer size = 1;
-        Booking booking = BookingTestData.getBooking();
-        List<Item> items = List.of(ItemTestData.getItem());
         BookingDto bookingDto = BookingTestData.getBookingDto();
         List<BookingDto> bookingDtoList = List.of(bookingDto);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(UserTestData.getUser()));
-        when(itemRepository.findAllByOwnerId(any())).thenReturn(items);
-        when(bookingRepository.findAllByItemIdAndStartAfter(any(), any(), any())).thenReturn(List.of(booking));
-        when(bookingMapper.toListDto(List.of(booking))).thenReturn(bookingDtoList);
+        when(bookingRepository.findAllByItemOwnerIdAndStartAfter(anyLong(), any(), any())).thenReturn(bookingDtoList);
 
         List<BookingDto> resultList = bookingService.getBookingsForAllItems(userId, state, from, size);
 
@@ -361,14 +407,10 @@ class BookingServiceTest {
         BookingState state = BookingState.WAITING;
         Integer from = 0;
         Integer size = 1;
-        Booking booking = BookingTestData.getBooking();
-        List<Item> items = List.of(ItemTestData.getItem());
         BookingDto bookingDto = BookingTestData.getBookingDto();
         List<BookingDto> bookingDtoList = List.of(bookingDto);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(UserTestData.getUser()));
-        when(itemRepository.findAllByOwnerId(any())).thenReturn(items);
-        when(bookingRepository.findBookingByItemIdAndStatus(any(), any(), any())).thenReturn(List.of(booking));
-        when(bookingMapper.toListDto(List.of(booking))).thenReturn(bookingDtoList);
+        when(bookingRepository.findAllByItemOwnerIdAndStatus(anyLong(), any(), any())).thenReturn(bookingDtoList);
 
         List<BookingDto> resultList = bookingService.getBookingsForAllItems(userId, state, from, size);
 
@@ -381,14 +423,10 @@ class BookingServiceTest {
         BookingState state = BookingState.ALL;
         Integer from = 0;
         Integer size = 1;
-        Booking booking = BookingTestData.getBooking();
-        List<Item> items = List.of(ItemTestData.getItem());
         BookingDto bookingDto = BookingTestData.getBookingDto();
         List<BookingDto> bookingDtoList = List.of(bookingDto);
         when(userRepository.findById(anyLong())).thenThrow(new UserNotFoundException(userId));
-        when(itemRepository.findAllByOwnerId(any())).thenReturn(items);
-        when(bookingRepository.findAllByBookerId(anyLong(), any())).thenReturn(List.of(booking));
-        when(bookingMapper.toListDto(List.of(booking))).thenReturn(bookingDtoList);
+        when(bookingRepository.findAllByItemOwnerId(anyLong(), any())).thenReturn(bookingDtoList);
 
         UserNotFoundException resultError = assertThrows(UserNotFoundException.class,
                 () -> bookingService.getBookingsForAllItems(userId, state, from, size));
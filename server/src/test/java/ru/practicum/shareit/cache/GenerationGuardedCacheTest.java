@@ -0,0 +1,49 @@
+package ru.practicum.shareit.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GenerationGuardedCacheTest {
+
+    private final GenerationGuardedCache cache = new GenerationGuardedCache(new ConcurrentMapCache("test"));
+
+    @Test
+    void putIfUnchangedStoresValueLoadedInCurrentGeneration() {
+        long generation = cache.generation(1L);
+
+        cache.putIfUnchanged(1L, generation, "value");
+
+        assertEquals("value", cache.get(1L, String.class));
+    }
+
+    @Test
+    void putIfUnchangedSkipsValueLoadedBeforeInvalidate() {
+        long generation = cache.generation(1L);
+        cache.invalidateAfterCommit(1L);
+
+        cache.putIfUnchanged(1L, generation, "stale");
+
+        assertNull(cache.get(1L, String.class));
+    }
+
+    @Test
+    void invalidateAfterCommitWaitsForCommit() {
+        cache.putIfUnchanged(1L, cache.generation(1L), "value");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidateAfterCommit(1L);
+            assertEquals("value", cache.get(1L, String.class));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNull(cache.get(1L, String.class));
+    }
+}
@@ -171,6 +171,15 @@ public class MapperTestData {
                 return booking;
             }
 
+            @Override
+            public Booking fromNewDto(BookingDto bookingClientDto) {
+                Booking booking = fromDto(bookingClientDto);
+                if (booking != null) {
+                    booking.setId(null);
+                }
+                return booking;
+            }
+
             @Override
             public List<BookingDto> toListDto(List<Booking> bookingList) {
                 if (bookingList == null) {
@@ -278,6 +287,26 @@ public class MapperTestData {
                 return itemWithBooking;
             }
 
+            @Override
+            public ItemWithBooking toPublicView(ItemWithBooking ownerView) {
+                if (ownerView == null) {
+                    return null;
+                }
+
+                ItemWithBooking itemWithBooking = new ItemWithBooking();
+
+                itemWithBooking.setId(ownerView.getId());
+                itemWithBooking.setName(ownerView.getName());
+                itemWithBooking.setDescription(ownerView.getDescription());
+                itemWithBooking.setAvailable(ownerView.getAvailable());
+                if (ownerView.getComments() != null) {
+                    itemWithBooking.setComments(new ArrayList<>(ownerView.getComments()));
+                }
+                itemWithBooking.setRequestId(ownerView.getRequestId());
+
+                return itemWithBooking;
+            }
+
             @Override
             public List<ItemDto> toListDto(List<Item> itemList) {
                 if (itemList == null) {
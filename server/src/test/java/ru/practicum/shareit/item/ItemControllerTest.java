@@ -8,6 +8,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -16,18 +17,25 @@ import ru.practicum.shareit.data.ItemTestData;
 import ru.practicum.shareit.exception.CommentValidationException;
 import ru.practicum.shareit.exception.ErrorHandler;
 import ru.practicum.shareit.exception.ItemNotFoundException;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBooking;
+import ru.practicum.shareit.item.service.ItemAvailabilityService;
 import ru.practicum.shareit.item.service.ItemService;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -37,6 +45,9 @@ class ItemControllerTest {
     @Mock
     private ItemService itemService;
 
+    @Mock
+    private ItemAvailabilityService itemAvailabilityService;
+
     @InjectMocks
     private ItemController itemController;
 
@@ -179,6 +190,37 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.comments[0].id", is(itemWithBooking.getComments().get(0).getId()), Long.class));
     }
 
+    @Test
+    void getItemWhenNotModified_304() throws Exception {
+        when(itemService.getItemTag(1L, 1L))
+                .thenReturn("item-1-3-owner");
+
+        mockMvc.perform(get("/items/{itemId}", 1L)
+                        .header("X-Sharer-User-Id", 1)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"item-1-3-owner\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"item-1-3-owner\""))
+                .andExpect(content().string(""));
+
+        verify(itemService, never()).getItem(anyLong(), anyLong());
+    }
+
+    @Test
+    void getItemWhenModified_200_OK() throws Exception {
+        ItemWithBooking itemWithBooking = ItemTestData.getItemWithBooking();
+        when(itemService.getItemTag(itemWithBooking.getId(), 1L))
+                .thenReturn("item-1-4-owner");
+        when(itemService.getItem(anyLong(), anyLong()))
+                .thenReturn(itemWithBooking);
+
+        mockMvc.perform(get("/items/{itemId}", itemWithBooking.getId())
+                        .header("X-Sharer-User-Id", 1)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"item-1-3-owner\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"item-1-4-owner\""))
+                .andExpect(jsonPath("$.id", is(itemWithBooking.getId()), Long.class));
+    }
+
     @Test
     void getItemWhen_404_error() throws Exception {
         ItemWithBooking itemWithBooking = ItemTestData.getItemWithBooking();
@@ -396,4 +438,20 @@ class ItemControllerTest {
                 .andDo(print());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAvailabilityWhen_200_OK() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 8, 0);
+        when(itemAvailabilityService.getAvailability(anyLong(), anyLong(), any(), any()))
+                .thenReturn(List.of(new AvailabilityIntervalDto(from, from.plusHours(2), false)));
+
+        mockMvc.perform(get("/items/{itemId}/availability", 1L)
+                        .param("from", "2030-01-01T08:00:00")
+                        .param("to", "2030-01-01T10:00:00")
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.[0].available", is(false)));
+    }
+}
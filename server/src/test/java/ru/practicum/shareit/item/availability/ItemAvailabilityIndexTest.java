@@ -0,0 +1,90 @@
+package ru.practicum.shareit.item.availability;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.data.BookingTestData;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemAvailabilityIndexTest {
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+
+    private final ItemAvailabilityIndex itemAvailabilityIndex = new ItemAvailabilityIndex(
+            new ConcurrentMapCacheManager(), bookingRepository);
+
+    @Test
+    void getAvailabilityAlignsBusySlotsToHours() {
+        LocalDateTime day = LocalDateTime.of(2030, 1, 1, 0, 0);
+        Booking booking = BookingTestData.getBooking();
+        booking.setStart(day.plusHours(10).plusMinutes(15));
+        booking.setEnd(day.plusHours(12));
+        when(bookingRepository.findAllByItemIdAndStatusIn(anyLong(), any())).thenReturn(List.of(booking));
+
+        List<AvailabilityIntervalDto> result = itemAvailabilityIndex.getAvailability(1L,
+                day.plusHours(8).plusMinutes(30), day.plusHours(14));
+
+        assertEquals(List.of(
+                new AvailabilityIntervalDto(day.plusHours(8).plusMinutes(30), day.plusHours(10), true),
+                new AvailabilityIntervalDto(day.plusHours(10), day.plusHours(12), false),
+                new AvailabilityIntervalDto(day.plusHours(12), day.plusHours(14), true)), result);
+    }
+
+    @Test
+    void getAvailabilityFromBeforeEpochReportsBookings() {
+        LocalDateTime from = LocalDateTime.of(1960, 1, 1, 0, 0);
+        LocalDateTime day = LocalDateTime.of(2030, 1, 1, 0, 0);
+        Booking booking = BookingTestData.getBooking();
+        booking.setStart(day.plusHours(10));
+        booking.setEnd(day.plusHours(12));
+        when(bookingRepository.findAllByItemIdAndStatusIn(anyLong(), any())).thenReturn(List.of(booking));
+
+        List<AvailabilityIntervalDto> result = itemAvailabilityIndex.getAvailability(1L, from, day.plusDays(1));
+
+        assertEquals(List.of(
+                new AvailabilityIntervalDto(from, day.plusHours(10), true),
+                new AvailabilityIntervalDto(day.plusHours(10), day.plusHours(12), false),
+                new AvailabilityIntervalDto(day.plusHours(12), day.plusDays(1), true)), result);
+    }
+
+    @Test
+    void getAvailabilityReloadsAfterInvalidate() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(bookingRepository.findAllByItemIdAndStatusIn(anyLong(), any())).thenReturn(List.of());
+
+        assertEquals(List.of(new AvailabilityIntervalDto(from, from.plusDays(365), true)),
+                itemAvailabilityIndex.getAvailability(1L, from, from.plusDays(365)));
+        itemAvailabilityIndex.getAvailability(1L, from, from.plusDays(1));
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusIn(anyLong(), any());
+
+        itemAvailabilityIndex.invalidate(1L);
+        itemAvailabilityIndex.getAvailability(1L, from, from.plusDays(1));
+        verify(bookingRepository, times(2)).findAllByItemIdAndStatusIn(anyLong(), any());
+    }
+
+    @Test
+    void getAvailabilityDoesNotCacheMapLoadedBeforeInvalidate() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(bookingRepository.findAllByItemIdAndStatusIn(anyLong(), any())).thenAnswer(invocation -> {
+            itemAvailabilityIndex.invalidate(1L);
+            return List.of();
+        });
+
+        itemAvailabilityIndex.getAvailability(1L, from, from.plusDays(1));
+        itemAvailabilityIndex.getAvailability(1L, from, from.plusDays(1));
+
+        verify(bookingRepository, times(2)).findAllByItemIdAndStatusIn(anyLong(), any());
+    }
+}
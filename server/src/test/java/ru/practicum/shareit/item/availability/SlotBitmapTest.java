@@ -0,0 +1,52 @@
+package ru.practicum.shareit.item.availability;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotBitmapTest {
+
+    @Test
+    void nextSkipsEmptyChunks() {
+        SlotBitmap bitmap = new SlotBitmap();
+        bitmap.set(10, 20);
+        bitmap.set(4090, 4100);
+        bitmap.set(100_000, 100_001);
+
+        assertTrue(bitmap.get(10));
+        assertTrue(bitmap.get(19));
+        assertFalse(bitmap.get(20));
+        assertEquals(3, bitmap.chunks());
+        assertEquals(10, bitmap.next(0, 200_000, true));
+        assertEquals(20, bitmap.next(10, 200_000, false));
+        assertEquals(4090, bitmap.next(20, 200_000, true));
+        assertEquals(4100, bitmap.next(4090, 200_000, false));
+        assertEquals(100_000, bitmap.next(4100, 200_000, true));
+        assertEquals(200_000, bitmap.next(100_001, 200_000, true));
+        assertEquals(150_000, bitmap.next(150_000, 200_000, false));
+    }
+
+    @Test
+    void nextKeepsChunksBeforeEpochOrdered() {
+        SlotBitmap bitmap = new SlotBitmap();
+        bitmap.set(-5000, -4990);
+        bitmap.set(500_000, 500_010);
+
+        assertTrue(bitmap.get(-5000));
+        assertFalse(bitmap.get(-4990));
+        assertEquals(-5000, bitmap.next(-90_000, 600_000, true));
+        assertEquals(-4990, bitmap.next(-5000, 600_000, false));
+        assertEquals(500_000, bitmap.next(-4990, 600_000, true));
+    }
+
+    @Test
+    void nextStopsAtUpperBound() {
+        SlotBitmap bitmap = new SlotBitmap();
+        bitmap.set(10, 20);
+
+        assertEquals(5, bitmap.next(0, 5, true));
+        assertEquals(15, bitmap.next(12, 15, false));
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.data.ItemTestData;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InMemoryItemSearchEngineTest {
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+
+    private final InMemoryItemSearchEngine searchEngine = new InMemoryItemSearchEngine(itemRepository);
+
+    @Test
+    void buildFromRepository() {
+        when(itemRepository.findAllByIdGreaterThan(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(getItem(1L, "Дрель", "Ударная"), getItem(2L, "Пила", "Ручная")));
+
+        searchEngine.build();
+
+        assertEquals(List.of(1L), searchEngine.search("удар", PageRequest.of(0, 10)));
+        verify(itemRepository).findAllByIdGreaterThan(eq(2L), any(Pageable.class));
+    }
+
+    @Test
+    void searchByPrefixRankedByNameFirst() {
+        searchEngine.index(getItem(1L, "Щётка для обуви", "Дрель не входит"));
+        searchEngine.index(getItem(2L, "Аккумуляторная дрель", "Дрель с зарядкой"));
+        searchEngine.index(getItem(3L, "Отвёртка", "Работает как дрель"));
+
+        List<Long> result = searchEngine.search("ДРЕЛ", PageRequest.of(0, 10));
+
+        assertEquals(List.of(2L, 1L, 3L), result);
+        assertEquals(List.of(1L), searchEngine.search("дрель обув", PageRequest.of(0, 10)));
+        assertEquals(List.of(1L), searchEngine.search("дрел", PageRequest.of(1, 1)));
+    }
+
+    @Test
+    void searchSkipsUnavailableAndUpdatedItems() {
+        Item item = getItem(1L, "Дрель", "Простая дрель");
+        searchEngine.index(item);
+        item.setName("Пила");
+        item.setDescription("Ручная пила");
+        searchEngine.index(item);
+
+        assertTrue(searchEngine.search("дрель", PageRequest.of(0, 10)).isEmpty());
+        assertEquals(List.of(1L), searchEngine.search("пила", PageRequest.of(0, 10)));
+
+        item.setAvailable(false);
+        searchEngine.index(item);
+
+        assertTrue(searchEngine.search("пила", PageRequest.of(0, 10)).isEmpty());
+        assertTrue(searchEngine.search(" ,. ", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void updateMovesWordBetweenNameAndDescription() {
+        searchEngine.index(getItem(1L, "Дрель", "Ударная"));
+        searchEngine.index(getItem(2L, "Ударная дрель", "Мощная"));
+        searchEngine.index(getItem(1L, "Ударный инструмент", "Дрель"));
+
+        assertEquals(List.of(2L, 1L), searchEngine.search("дрель", PageRequest.of(0, 10)));
+        assertEquals(List.of(1L), searchEngine.search("инструмент", PageRequest.of(0, 10)));
+        assertEquals(List.of(2L), searchEngine.search("мощн", PageRequest.of(0, 10)));
+    }
+
+    private Item getItem(Long id, String name, String description) {
+        Item item = ItemTestData.getItem();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        return item;
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PostingListTest {
+
+    @Test
+    void addKeepsIdsOrderedAndDeduplicated() {
+        PostingList postingList = new PostingList();
+        postingList.add(5, true);
+        postingList.add(300, false);
+        postingList.add(1_000_000_000L, true);
+        postingList.add(7, false);
+        postingList.add(300, true);
+
+        assertEquals(List.of("5:true", "7:false", "300:true", "1000000000:true"), entries(postingList));
+        assertEquals(4, postingList.size());
+    }
+
+    @Test
+    void removeAndTrim() {
+        PostingList postingList = new PostingList();
+        for (long id = 1; id <= 1000; id++) {
+            postingList.add(id, id % 2 == 0);
+        }
+        for (long id = 2; id <= 1000; id++) {
+            postingList.remove(id);
+        }
+        postingList.remove(12345);
+        postingList.trim();
+        postingList.add(2000, true);
+
+        assertEquals(List.of("1:false", "2000:true"), entries(postingList));
+    }
+
+    @Test
+    void removeAndInsertInMiddleRecodeNeighbour() {
+        PostingList postingList = new PostingList();
+        postingList.add(1, true);
+        postingList.add(100, false);
+        postingList.add(100_000, true);
+        postingList.add(100_001, false);
+
+        postingList.remove(100);
+        postingList.add(50_000, false);
+        postingList.add(100_000, false);
+        postingList.remove(100_001);
+        postingList.add(100_002, true);
+
+        assertEquals(List.of("1:true", "50000:false", "100000:false", "100002:true"), entries(postingList));
+        assertEquals(4, postingList.size());
+    }
+
+    private List<String> entries(PostingList postingList) {
+        List<String> entries = new ArrayList<>();
+        postingList.forEach((id, inName) -> entries.add(id + ":" + inName));
+        return entries;
+    }
+}
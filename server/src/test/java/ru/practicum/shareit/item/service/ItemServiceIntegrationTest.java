@@ -1,13 +1,19 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.data.BookingTestData;
@@ -18,16 +24,20 @@ import ru.practicum.shareit.exception.CommentValidationException;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBooking;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest
@@ -44,30 +54,102 @@ public class ItemServiceIntegrationTest {
     private ItemRequestService itemRequestService;
     @Autowired
     private ItemService itemService;
+    @Autowired
+    private ItemBookingService itemBookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Тесты поиска и кэша фиксируют транзакцию; база в памяти общая с другими контекстами, поэтому данные удаляются
+     */
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DELETE FROM comments; DELETE FROM bookings; DELETE FROM items; " +
+                "DELETE FROM requests; DELETE FROM users");
+    }
 
     @Test
     void getItemTest() {
         UserDto userDto = userService.createUser(UserTestData.getUserDto());
 
-        itemRequestService.createRequest(userDto.getId(), ItemRequestTestData.getItemReqDto());
+        ItemRequestDto request = itemRequestService.createRequest(userDto.getId(), newRequestDto());
 
-        ItemDto item = itemService.createItem(ItemTestData.getItemDto(), userDto.getId());
+        ItemDto item = itemService.createItem(newItemDto(request.getId()), userDto.getId());
 
         ItemWithBooking result = itemService.getItem(item.getId(), userDto.getId());
 
         assertEquals(item.getName(), result.getName());
         assertEquals(item.getId(), result.getId());
 
-        assertThrows(ItemNotFoundException.class, () -> itemService.getItem(12L, userDto.getId()));
+        assertThrows(ItemNotFoundException.class, () -> itemService.getItem(-1L, userDto.getId()));
+    }
+
+    @Test
+    void getItemTagTest() {
+        UserDto owner = userService.createUser(UserTestData.getUserDtoOwner());
+        UserDto user = userService.createUser(UserTestData.getUserDto());
+        ItemDto item = itemService.createItem(newItemDto(null), owner.getId());
+
+        String ownerTag = itemService.getItemTag(item.getId(), owner.getId());
+        assertEquals(ownerTag, itemService.getItemTag(item.getId(), owner.getId()));
+        assertNotEquals(ownerTag, itemService.getItemTag(item.getId(), user.getId()));
+
+        ItemDto update = new ItemDto();
+        update.setId(item.getId());
+        update.setName("new name");
+        itemService.updateItem(update, owner.getId());
+
+        assertNotEquals(ownerTag, itemService.getItemTag(item.getId(), owner.getId()));
+        assertNull(itemService.getItemTag(-1L, owner.getId()));
+    }
+
+    /**
+     * Карточка меняется без изменения строки вещи: начинается бронирование или автор комментария меняет имя
+     */
+    @Test
+    void getItemTagTracksBookingsAndCommentAuthorsTest() {
+        UserDto owner = userService.createUser(UserTestData.getUserDtoOwner());
+        UserDto booker = userService.createUser(UserTestData.getUserDto());
+        ItemDto item = itemService.createItem(newItemDto(null), owner.getId());
+        BookingRequestDto bookingDto = BookingTestData.getBookinReqDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(LocalDateTime.of(2100, 1, 1, 10, 0));
+        bookingDto.setEnd(LocalDateTime.of(2100, 1, 1, 11, 0));
+        BookingDto created = bookingService.createBooking(booker.getId(), bookingDto);
+        bookingService.updateBooking(owner.getId(), created.getId(), true);
+        String ownerTag = itemService.getItemTag(item.getId(), owner.getId());
+        String listTag = itemService.getAllItemsTag(owner.getId());
+
+        Booking booking = bookingRepository.findById(created.getId()).orElseThrow();
+        booking.setStart(LocalDateTime.of(2000, 1, 1, 10, 0));
+        booking.setEnd(LocalDateTime.of(2000, 1, 1, 11, 0));
+        bookingRepository.saveAndFlush(booking);
+        String startedTag = itemService.getItemTag(item.getId(), owner.getId());
+        assertNotEquals(ownerTag, startedTag);
+        assertNotEquals(listTag, itemService.getAllItemsTag(owner.getId()));
+
+        CommentDto commentDto = new CommentDto();
+        commentDto.setText("Good");
+        itemService.addComment(booker.getId(), item.getId(), commentDto);
+        String commentedTag = itemService.getItemTag(item.getId(), booker.getId());
+        String commentedListTag = itemService.getAllItemsTag(owner.getId());
+
+        UserDto rename = new UserDto();
+        rename.setName("renamed");
+        userService.updateUser(booker.getId(), rename);
+        assertNotEquals(commentedTag, itemService.getItemTag(item.getId(), booker.getId()));
+        assertNotEquals(commentedListTag, itemService.getAllItemsTag(owner.getId()));
     }
 
     @Test
     void getAllItemsTest() {
         UserDto userDto = userService.createUser(UserTestData.getUserDto());
 
-        itemRequestService.createRequest(userDto.getId(), ItemRequestTestData.getItemReqDto());
+        ItemRequestDto request = itemRequestService.createRequest(userDto.getId(), newRequestDto());
 
-        ItemDto item = itemService.createItem(ItemTestData.getItemDto(), userDto.getId());
+        ItemDto item = itemService.createItem(newItemDto(request.getId()), userDto.getId());
 
         List<ItemWithBooking> items = itemService.getAllItems(userDto.getId(), 0, 10);
         assertThat(items.get(0).getId(), equalTo(item.getId()));
@@ -75,19 +157,22 @@ public class ItemServiceIntegrationTest {
 
         List<ItemWithBooking> items1 = itemService.getAllItems(userDto.getId(), 0, 1);
         assertThat(items1.size(), equalTo(1));
-        ItemDto item1 = itemService.createItem(ItemTestData.getItemDto(), userDto1.getId());
-        itemRequestService.createRequest(userDto1.getId(), ItemRequestTestData.getItemReqDto());
-        List<ItemWithBooking> items2 = itemService.getAllItems(userDto.getId(), 0, 1);
-        assertThat(items2.size(), equalTo(0));
+        ItemDto item1 = itemService.createItem(newItemDto(null), userDto1.getId());
+        itemRequestService.createRequest(userDto1.getId(), newRequestDto());
+        List<ItemWithBooking> items2 = itemService.getAllItems(userDto.getId(), 0, 10);
+        assertThat(items2.size(), equalTo(1));
+        assertThat(items2.get(0).getId(), equalTo(item.getId()));
+        List<ItemWithBooking> otherItems = itemService.getAllItems(userDto1.getId(), 0, 10);
+        assertThat(otherItems.get(0).getId(), equalTo(item1.getId()));
     }
 
     @Test
     void getAllItemsWithBookingTest() {
         UserDto userDto = userService.createUser(UserTestData.getUserDto());
 
-        itemRequestService.createRequest(userDto.getId(), ItemRequestTestData.getItemReqDto());
+        ItemRequestDto request = itemRequestService.createRequest(userDto.getId(), newRequestDto());
 
-        ItemDto item = itemService.createItem(ItemTestData.getItemDto(), userDto.getId());
+        ItemDto item = itemService.createItem(newItemDto(request.getId()), userDto.getId());
         BookingRequestDto bookingDto = BookingTestData.getBookinReqDto();
         bookingDto.setItemId(item.getId());
         UserDto userDto1 = userService.createUser(UserTestData.getUserDtoOwner());
@@ -100,19 +185,22 @@ public class ItemServiceIntegrationTest {
 
         List<ItemWithBooking> items1 = itemService.getAllItems(userDto.getId(), 0, 1);
         assertThat(items1.size(), equalTo(1));
-        ItemDto item1 = itemService.createItem(ItemTestData.getItemDto(), userDto1.getId());
-        itemRequestService.createRequest(userDto1.getId(), ItemRequestTestData.getItemReqDto());
-        List<ItemWithBooking> items2 = itemService.getAllItems(userDto.getId(), 0, 1);
-        assertThat(items2.size(), equalTo(0));
+        ItemDto item1 = itemService.createItem(newItemDto(null), userDto1.getId());
+        itemRequestService.createRequest(userDto1.getId(), newRequestDto());
+        List<ItemWithBooking> items2 = itemService.getAllItems(userDto.getId(), 0, 10);
+        assertThat(items2.size(), equalTo(1));
+        assertThat(items2.get(0).getId(), equalTo(item.getId()));
+        List<ItemWithBooking> otherItems = itemService.getAllItems(userDto1.getId(), 0, 10);
+        assertThat(otherItems.get(0).getId(), equalTo(item1.getId()));
     }
 
     @Test
     void getAllItemsWithLastBookingTest() throws InterruptedException {
         UserDto userDto = userService.createUser(UserTestData.getUserDto());
 
-        itemRequestService.createRequest(userDto.getId(), ItemRequestTestData.getItemReqDto());
+        ItemRequestDto request = itemRequestService.createRequest(userDto.getId(), newRequestDto());
 
-        ItemDto item = itemService.createItem(ItemTestData.getItemDto(), userDto.getId());
+        ItemDto item = itemService.createItem(newItemDto(request.getId()), userDto.getId());
         BookingRequestDto bookingDto = BookingTestData.getBookinReqDto();
         bookingDto.setItemId(item.getId());
         bookingDto.setStart(LocalDateTime.now().plusSeconds(1));
@@ -126,19 +214,92 @@ public class ItemServiceIntegrationTest {
 
         List<ItemWithBooking> items1 = itemService.getAllItems(userDto.getId(), 0, 1);
         assertThat(items1.size(), equalTo(1));
-        ItemDto item1 = itemService.createItem(ItemTestData.getItemDto(), userDto1.getId());
-        itemRequestService.createRequest(userDto1.getId(), ItemRequestTestData.getItemReqDto());
-        List<ItemWithBooking> items2 = itemService.getAllItems(userDto.getId(), 0, 1);
-        assertThat(items2.size(), equalTo(0));
+        ItemDto item1 = itemService.createItem(newItemDto(null), userDto1.getId());
+        itemRequestService.createRequest(userDto1.getId(), newRequestDto());
+        List<ItemWithBooking> items2 = itemService.getAllItems(userDto.getId(), 0, 10);
+        assertThat(items2.size(), equalTo(1));
+        assertThat(items2.get(0).getId(), equalTo(item.getId()));
+        List<ItemWithBooking> otherItems = itemService.getAllItems(userDto1.getId(), 0, 10);
+        assertThat(otherItems.get(0).getId(), equalTo(item1.getId()));
+    }
+
+    /**
+     * Тест без общей транзакции: карточка вещи сбрасывается из кэша только после фиксации изменений
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void getItemWithProjectedBookingsTest() {
+        UserDto userDto = userService.createUser(UserTestData.getUserDto());
+        ItemRequestDto request = itemRequestService.createRequest(userDto.getId(), newRequestDto());
+        ItemDto item = itemService.createItem(newItemDto(request.getId()), userDto.getId());
+        UserDto userDto1 = userService.createUser(UserTestData.getUserDtoOwner());
+        BookingRequestDto bookingDto = BookingTestData.getBookinReqDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(LocalDateTime.of(2100, 1, 1, 10, 0));
+        bookingDto.setEnd(LocalDateTime.of(2100, 1, 1, 11, 0));
+        BookingDto bookingDto1 = bookingService.createBooking(userDto1.getId(), bookingDto);
+
+        ItemWithBooking waiting = itemService.getItem(item.getId(), userDto.getId());
+        assertNull(waiting.getNextBooking());
+
+        bookingService.updateBooking(userDto.getId(), bookingDto1.getId(), true);
+        ItemWithBooking approved = itemService.getItem(item.getId(), userDto.getId());
+        assertNull(approved.getLastBooking());
+        assertEquals(bookingDto1.getId(), approved.getNextBooking().getId());
+
+        Booking booking = bookingRepository.findById(bookingDto1.getId()).orElseThrow();
+        booking.setStart(LocalDateTime.of(2000, 1, 1, 10, 0));
+        booking.setEnd(LocalDateTime.of(2000, 1, 1, 11, 0));
+        bookingRepository.save(booking);
+        itemBookingService.rollForward();
+        ItemWithBooking started = itemService.getItem(item.getId(), userDto.getId());
+        assertEquals(bookingDto1.getId(), started.getLastBooking().getId());
+        assertNull(started.getNextBooking());
+    }
+
+    /**
+     * Тест без общей транзакции: карточка с комментарием сбрасывается из кэша после смены имени автора
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void getItemAfterCommentAuthorRenameTest() {
+        UserDto owner = userService.createUser(UserTestData.getUserDtoOwner());
+        UserDto booker = userService.createUser(UserTestData.getUserDto());
+        ItemDto item = itemService.createItem(newItemDto(null), owner.getId());
+        BookingRequestDto bookingDto = BookingTestData.getBookinReqDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(LocalDateTime.of(2100, 1, 1, 10, 0));
+        bookingDto.setEnd(LocalDateTime.of(2100, 1, 1, 11, 0));
+        BookingDto created = bookingService.createBooking(booker.getId(), bookingDto);
+        Booking booking = bookingRepository.findById(created.getId()).orElseThrow();
+        booking.setStart(LocalDateTime.of(2000, 1, 1, 10, 0));
+        booking.setEnd(LocalDateTime.of(2000, 1, 1, 11, 0));
+        bookingRepository.save(booking);
+        CommentDto commentDto = new CommentDto();
+        commentDto.setText("Good");
+        itemService.addComment(booker.getId(), item.getId(), commentDto);
+        assertEquals(booker.getName(), itemService.getItem(item.getId(), owner.getId())
+                .getComments().get(0).getAuthorName());
+
+        UserDto rename = new UserDto();
+        rename.setName("renamed");
+        userService.updateUser(booker.getId(), rename);
+
+        assertEquals("renamed", itemService.getItem(item.getId(), owner.getId())
+                .getComments().get(0).getAuthorName());
     }
 
     @Test
     void searchItemsTest() {
         UserDto userDto = userService.createUser(UserTestData.getUserDto());
 
-        itemRequestService.createRequest(userDto.getId(), ItemRequestTestData.getItemReqDto());
+        ItemRequestDto request = itemRequestService.createRequest(userDto.getId(), newRequestDto());
 
-        ItemDto item = itemService.createItem(ItemTestData.getItemDto(), userDto.getId());
+        ItemDto item = itemService.createItem(newItemDto(request.getId()), userDto.getId());
+        assertEquals(0, itemService.searchItems("test", userDto.getId(), 0, 1).size());
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
 
         List<ItemDto> result = itemService.searchItems("test", userDto.getId(), 0, 1);
 
@@ -149,13 +310,68 @@ public class ItemServiceIntegrationTest {
         assertEquals(0, listEmpty.size());
     }
 
+    @Test
+    void searchItemsSkipsRolledBackItemTest() {
+        UserDto userDto = userService.createUser(UserTestData.getUserDto());
+        ItemRequestDto request = itemRequestService.createRequest(userDto.getId(), newRequestDto());
+        itemService.createItem(newItemDto(request.getId()), userDto.getId());
+        TestTransaction.end();
+
+        assertEquals(0, itemService.searchItems("test", userDto.getId(), 0, 1).size());
+    }
+
+    @Test
+    void searchAvailableItemsTest() {
+        UserDto userDto = userService.createUser(UserTestData.getUserDto());
+        UserDto userDto1 = userService.createUser(UserTestData.getUserDtoOwner());
+        ItemRequestDto request = itemRequestService.createRequest(userDto.getId(), newRequestDto());
+        ItemDto item = itemService.createItem(newItemDto(request.getId()), userDto.getId());
+        ItemDto item1 = itemService.createItem(newItemDto(request.getId()), userDto.getId());
+        BookingRequestDto bookingDto = BookingTestData.getBookinReqDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(bookingDto.getStart().truncatedTo(ChronoUnit.MICROS));
+        bookingDto.setEnd(bookingDto.getEnd().truncatedTo(ChronoUnit.MICROS));
+        BookingDto bookingDto1 = bookingService.createBooking(userDto1.getId(), bookingDto);
+        bookingService.updateBooking(userDto.getId(), bookingDto1.getId(), true);
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        List<ItemDto> busy = itemService.searchAvailableItems("test", userDto1.getId(),
+                bookingDto.getStart().plusMinutes(1), bookingDto.getEnd().plusMinutes(1), 0, 10);
+        assertEquals(List.of(item1), busy);
+
+        List<ItemDto> free = itemService.searchAvailableItems("test", userDto1.getId(),
+                bookingDto.getEnd(), bookingDto.getEnd().plusMinutes(10), 0, 10);
+        assertEquals(2, free.size());
+
+        List<ItemDto> secondPage = itemService.searchAvailableItems("test", userDto1.getId(),
+                bookingDto.getStart().plusMinutes(1), bookingDto.getEnd().plusMinutes(1), 1, 1);
+        assertEquals(0, secondPage.size());
+    }
+
     @Test
     void addCommentTest() {
         UserDto userDto = userService.createUser(UserTestData.getUserDto());
-        itemRequestService.createRequest(userDto.getId(), ItemRequestTestData.getItemReqDto());
-        ItemDto item = itemService.createItem(ItemTestData.getItemDto(), userDto.getId());
+        ItemRequestDto request = itemRequestService.createRequest(userDto.getId(), newRequestDto());
+        ItemDto item = itemService.createItem(newItemDto(request.getId()), userDto.getId());
 
         assertThrows(CommentValidationException.class,
                 () -> itemService.addComment(userDto.getId(), item.getId(), new CommentDto()));
     }
+
+    /**
+     * Вещь без заданного идентификатора: идентификаторы выдаёт последовательность
+     */
+    private static ItemDto newItemDto(Long requestId) {
+        ItemDto itemDto = ItemTestData.getItemDto();
+        itemDto.setId(null);
+        itemDto.setRequestId(requestId);
+        return itemDto;
+    }
+
+    private static ItemRequestDto newRequestDto() {
+        ItemRequestDto itemRequestDto = ItemRequestTestData.getItemReqDto();
+        itemRequestDto.setId(0);
+        return itemRequestDto;
+    }
 }
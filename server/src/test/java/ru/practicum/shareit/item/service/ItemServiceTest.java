@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item.service;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
@@ -21,9 +23,11 @@ import ru.practicum.shareit.item.dto.ItemWithBooking;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
 import java.util.List;
 import java.util.Optional;
@@ -32,6 +36,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ItemServiceTest {
@@ -41,6 +47,10 @@ class ItemServiceTest {
 
     private BookingRepository bookingRepository = mock(BookingRepository.class);
     private ItemMapper itemMapper = mock(ItemMapper.class);
+
+    private ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private ItemViewCache itemViewCache = new ItemViewCache(new ConcurrentMapCacheManager());
     private BookingMapper bookingMapper = mock(BookingMapper.class);
 
     private CommentRepository commentRepository = mock(CommentRepository.class);
@@ -49,9 +59,14 @@ class ItemServiceTest {
 
     private ItemRequestRepository itemRequestRepository = mock(ItemRequestRepository.class);
 
+    private ItemSearchEngine itemSearchEngine = mock(ItemSearchEngine.class);
 
-    private ItemService itemService = new ItemService(itemRepository, userRepository, bookingRepository, itemMapper,
-            bookingMapper, commentRepository, commentMapper, itemRequestRepository);
+
+    private ItemService itemService = new ItemService(itemRepository, new UserCache(new ConcurrentMapCacheManager(), userRepository),
+            bookingRepository, itemMapper,
+            bookingMapper, commentRepository, commentMapper, itemRequestRepository,
+            new ItemBookingService(itemRepository, bookingRepository, eventPublisher), itemSearchEngine,
+            itemViewCache, eventPublisher);
 
     @Test
     void createItemWhenDataCorrect() {
@@ -114,7 +129,7 @@ class ItemServiceTest {
 
         when(commentRepository.findAllByItem(any())).thenReturn(comments);
         when(itemRepository.findById(any())).thenReturn(Optional.of(item));
-        when(bookingRepository.findBookingByItemIn(any(), any())).thenReturn(List.of(BookingTestData.getBooking()));
+        when(bookingRepository.findAllById(any())).thenReturn(List.of(BookingTestData.getBooking()));
         when(commentRepository.findAllByItemIn(any())).thenReturn(comments);
         when(itemMapper.toItemWithBooking(any())).thenReturn(itemWithBooking);
         when(commentMapper.toListDto(any())).thenReturn(itemWithBooking.getComments());
@@ -137,7 +152,7 @@ class ItemServiceTest {
 
         when(commentRepository.findAllByItem(any())).thenReturn(comments);
         when(itemRepository.findById(any())).thenReturn(Optional.of(item));
-        when(bookingRepository.findBookingByItemIn(any(), any())).thenReturn(List.of(BookingTestData.getBooking()));
+        when(bookingRepository.findAllById(any())).thenReturn(List.of(BookingTestData.getBooking()));
         when(commentRepository.findAllByItemIn(any())).thenReturn(comments);
         when(itemMapper.toItemWithBooking(any())).thenReturn(itemWithBooking);
         when(commentMapper.toListDto(any())).thenReturn(itemWithBooking.getComments());
@@ -161,7 +176,7 @@ class ItemServiceTest {
 
         when(commentRepository.findAllByItem(any())).thenReturn(comments);
         when(itemRepository.findById(any())).thenThrow(new ItemNotFoundException(itemWithBooking.getId()));
-        when(bookingRepository.findBookingByItemIn(any(), any())).thenReturn(List.of(BookingTestData.getBooking()));
+        when(bookingRepository.findAllById(any())).thenReturn(List.of(BookingTestData.getBooking()));
         when(commentRepository.findAllByItemIn(any())).thenReturn(comments);
         when(itemMapper.toItemWithBooking(any())).thenReturn(itemWithBooking);
         when(commentMapper.toListDto(any())).thenReturn(itemWithBooking.getComments());
@@ -183,7 +198,7 @@ class ItemServiceTest {
 
         when(userRepository.findById(any())).thenReturn(Optional.of(item.getOwner()));
         when(itemRepository.findById(any())).thenReturn(Optional.of(item));
-        when(bookingRepository.findBookingByItemIn(any(), any())).thenReturn(List.of(BookingTestData.getBooking()));
+        when(bookingRepository.findAllById(any())).thenReturn(List.of(BookingTestData.getBooking()));
         when(commentRepository.findAllByItemIn(any())).thenReturn(comments);
         when(itemMapper.toItemWithBooking(any())).thenReturn(itemWithBooking);
         when(commentMapper.toListDto(any())).thenReturn(itemWithBooking.getComments());
@@ -193,6 +208,39 @@ class ItemServiceTest {
         assertEquals(itemWithBooking, result);
     }
 
+    @Test
+    void getItemFromCacheUntilItemChanged() {
+        Item item = ItemTestData.getItem();
+        ItemWithBooking itemWithBooking = ItemTestData.getItemWithBooking();
+        ItemWithBooking publicView = ItemTestData.getItemWithBooking();
+        publicView.setNextBooking(null);
+
+        when(userRepository.findById(any())).thenReturn(Optional.of(item.getOwner()));
+        when(itemRepository.findById(any())).thenReturn(Optional.of(item));
+        when(commentRepository.findAllByItemIn(any())).thenReturn(List.of());
+        when(itemMapper.toItemWithBooking(any())).thenReturn(itemWithBooking);
+        when(itemMapper.toPublicView(any())).thenReturn(publicView);
+
+        assertEquals(itemWithBooking, itemService.getItem(item.getId(), item.getOwner().getId()));
+        assertEquals(publicView, itemService.getItem(item.getId(), 1L));
+        verify(itemRepository, times(1)).findById(any());
+
+        itemViewCache.onItemChanged(new ItemChangedEvent(item.getId()));
+        itemService.getItem(item.getId(), item.getOwner().getId());
+        verify(itemRepository, times(2)).findById(any());
+    }
+
+    @Test
+    void staleItemViewIsNotCached() {
+        ItemWithBooking itemWithBooking = ItemTestData.getItemWithBooking();
+        long generation = itemViewCache.generation(itemWithBooking.getId());
+
+        itemViewCache.onItemChanged(new ItemChangedEvent(itemWithBooking.getId()));
+        itemViewCache.put(itemWithBooking.getId(), generation, new ItemViewCache.ItemView(1L, itemWithBooking, null));
+
+        assertNull(itemViewCache.get(itemWithBooking.getId()));
+    }
+
     @Test
     void getItemWhenIsNotFound() {
         long userId = 2L;
@@ -202,7 +250,7 @@ class ItemServiceTest {
 
         when(userRepository.findById(any())).thenReturn(Optional.of(item.getOwner()));
         when(itemRepository.findById(any())).thenThrow(new ItemNotFoundException(itemWithBooking.getId()));
-        when(bookingRepository.findBookingByItemIn(any(), any())).thenReturn(List.of(BookingTestData.getBooking()));
+        when(bookingRepository.findAllById(any())).thenReturn(List.of(BookingTestData.getBooking()));
         when(commentRepository.findAllByItemIn(any())).thenReturn(comments);
         when(itemMapper.toItemWithBooking(any())).thenReturn(itemWithBooking);
         when(commentMapper.toListDto(any())).thenReturn(itemWithBooking.getComments());
@@ -222,7 +270,7 @@ class ItemServiceTest {
 
         when(userRepository.findById(any())).thenReturn(Optional.of(item.getOwner()));
         when(itemRepository.findById(any())).thenThrow(new ItemNotFoundException(itemWithBooking.getId()));
-        when(bookingRepository.findBookingByItemIn(any(), any())).thenReturn(List.of(BookingTestData.getBooking()));
+        when(bookingRepository.findAllById(any())).thenReturn(List.of(BookingTestData.getBooking()));
         when(commentRepository.findAllByItemIn(any())).thenReturn(comments);
         when(itemMapper.toItemWithBooking(any())).thenReturn(itemWithBooking);
         when(commentMapper.toListDto(any())).thenReturn(itemWithBooking.getComments());
@@ -240,11 +288,13 @@ class ItemServiceTest {
         Integer size = 1;
         Item item = ItemTestData.getItem();
         ItemWithBooking itemWithBooking = ItemTestData.getItemWithBooking();
+        item.setLastBookingId(1L);
+        item.setNextBookingId(2L);
         List<Comment> comments = List.of(ItemTestData.getComment());
         when(itemRepository.findAllByOwnerId(any(), any(Pageable.class))).thenReturn(List.of(item));
         when(userRepository.findById(any())).thenReturn(Optional.of(item.getOwner()));
         when(itemRepository.findById(any())).thenReturn(Optional.of(item));
-        when(bookingRepository.findBookingByItemIn(any(), any())).thenReturn(List.of(BookingTestData.getBooking(),
+        when(bookingRepository.findAllById(any())).thenReturn(List.of(BookingTestData.getBooking(),
                 BookingTestData.getBookingNext()));
         when(commentRepository.findAllByItemIn(any())).thenReturn(comments);
         when(itemMapper.toItemWithBooking(any())).thenReturn(itemWithBooking);
@@ -255,6 +305,26 @@ class ItemServiceTest {
         assertEquals(itemWithBooking, result.get(0));
     }
 
+    @Test
+    void getAllItemsGroupsCommentsByItem() {
+        long userId = 2L;
+        Item item = ItemTestData.getItem();
+        Item other = ItemTestData.getItem();
+        other.setId(2L);
+        Comment comment = ItemTestData.getComment();
+        when(itemRepository.findAllByOwnerId(any(), any(Pageable.class))).thenReturn(List.of(item, other));
+        when(userRepository.findById(any())).thenReturn(Optional.of(item.getOwner()));
+        when(commentRepository.findAllByItemIn(any())).thenReturn(List.of(comment));
+        when(itemMapper.toItemWithBooking(any())).thenReturn(ItemTestData.getItemWithBooking());
+
+        List<ItemWithBooking> result = itemService.getAllItems(userId, 0, 2);
+
+        assertEquals(2, result.size());
+        verify(commentRepository, times(1)).findAllByItemIn(any());
+        verify(commentMapper).toListDto(List.of(comment));
+        verify(commentMapper).toListDto(List.of());
+    }
+
     @Test
     void getAllItemsWhenNotFound() {
         long userId = 2L;
@@ -264,7 +334,7 @@ class ItemServiceTest {
 
         when(itemRepository.findAllByOwnerId(any())).thenReturn(List.of(item));
         when(userRepository.findById(any())).thenReturn(Optional.of(UserTestData.getUser()));
-        when(bookingRepository.findBookingByItemIn(any(), any())).thenReturn(List.of());
+        when(bookingRepository.findAllById(any())).thenReturn(List.of());
         when(commentRepository.findAllByItemIn(any())).thenReturn(null);
         when(itemMapper.toItemWithBooking(any())).thenReturn(null);
         when(commentMapper.toListDto(any())).thenReturn(List.of());
@@ -283,8 +353,8 @@ class ItemServiceTest {
         Item item = ItemTestData.getItem();
         ItemDto itemDto = ItemTestData.getItemDto();
 
-        when(itemRepository.searchItems(any(), any(Pageable.class))).thenReturn(List.of(item));
-        when(itemMapper.toListDto(any())).thenReturn(List.of(itemDto));
+        when(itemSearchEngine.search(any(), any(Pageable.class))).thenReturn(List.of(item.getId()));
+        when(itemRepository.findAllDtoByIdIn(any())).thenReturn(List.of(itemDto));
 
         List<ItemDto> list = itemService.searchItems(text, userId, from, size);
 
@@ -300,8 +370,7 @@ class ItemServiceTest {
         Item item = ItemTestData.getItem();
         ItemDto itemDto = ItemTestData.getItemDto();
 
-        when(itemRepository.searchItems(any(), any())).thenReturn(List.of());
-        when(itemMapper.toListDto(any())).thenReturn(List.of());
+        when(itemSearchEngine.search(any(), any())).thenReturn(List.of());
 
         List<ItemDto> result = itemService.searchItems(text, userId, from, size);
 
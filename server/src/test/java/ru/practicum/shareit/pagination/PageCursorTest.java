@@ -0,0 +1,65 @@
+package ru.practicum.shareit.pagination;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.exception.CursorValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void encodeAndDecode() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2023, 5, 1, 10, 15, 30, 123456000), 42L);
+
+        PageCursor result = PageCursor.valueOf(cursor.encode());
+
+        assertEquals(cursor, result);
+    }
+
+    @Test
+    void encodeAndDecodeWithoutSortKey() {
+        PageCursor cursor = new PageCursor(null, 7L);
+
+        PageCursor result = PageCursor.valueOf(cursor.encode());
+
+        assertNull(result.getSortKey());
+        assertEquals(7L, result.getId());
+    }
+
+    @Test
+    void decodeWhenTokenInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.valueOf("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.valueOf(new PageCursor(null, 1L).encode() + "="));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.valueOf(encode("2023-05-01T10:15|1|2")));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.valueOf(encode("|01")));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.valueOf(encode("yesterday|1")));
+    }
+
+    @Test
+    void requireSortKey() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2023, 5, 1, 10, 15), 3L);
+
+        assertSame(cursor, cursor.requireSortKey());
+        assertThrows(CursorValidationException.class, () -> new PageCursor(null, 3L).requireSortKey());
+    }
+
+    @Test
+    void pageWithNextCursorWhenPageFull() {
+        ResponseEntity<List<Long>> full = PageCursor.page(List.of(1L, 2L), 2, id -> new PageCursor(null, id));
+        ResponseEntity<List<Long>> last = PageCursor.page(List.of(3L), 2, id -> new PageCursor(null, id));
+
+        assertEquals(new PageCursor(null, 2L),
+                PageCursor.valueOf(full.getHeaders().getFirst(PageCursor.NEXT_CURSOR_HEADER)));
+        assertFalse(last.getHeaders().containsKey(PageCursor.NEXT_CURSOR_HEADER));
+    }
+
+    private static String encode(String decoded) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(decoded.getBytes(StandardCharsets.UTF_8));
+    }
+}
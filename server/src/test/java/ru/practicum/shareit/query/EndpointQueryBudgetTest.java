@@ -0,0 +1,235 @@
+package ru.practicum.shareit.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.data.BookingTestData;
+import ru.practicum.shareit.data.ItemRequestTestData;
+import ru.practicum.shareit.data.ItemTestData;
+import ru.practicum.shareit.data.UserTestData;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Бюджеты SQL-запросов эндпоинтов сервера. Данные: владелец с тремя вещами, одна из них — ответ на запрос,
+ * и пользователь с бронированием каждой вещи. Бюджет не должен расти с числом вещей и бронирований на странице.
+ * Бюджеты равны измеренному числу запросов при явно заданном состоянии кэшей: cold — перед вызовом все кэши
+ * очищены, warm — тот же вызов только что выполнен и заполнил кэши.
+ */
+@SpringBootTest(properties = QueryBudget.STATEMENT_INSPECTOR)
+@AutoConfigureMockMvc
+@Transactional
+class EndpointQueryBudgetTest {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+
+    private QueryBudget queryBudget;
+
+    private UserDto owner;
+
+    private UserDto booker;
+
+    private ItemRequestDto request;
+
+    private final List<ItemDto> items = new ArrayList<>();
+
+    private final List<BookingDto> bookings = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        clearCaches();
+        StatementCounter.reset();
+        queryBudget = new QueryBudget(entityManager);
+        owner = userService.createUser(UserTestData.getUserDtoOwner());
+        booker = userService.createUser(UserTestData.getUserDto());
+        request = itemRequestService.createRequest(booker.getId(), ItemRequestTestData.getItemReqDto());
+        for (int i = 0; i < 3; i++) {
+            ItemDto itemDto = ItemTestData.getItemDto();
+            itemDto.setId(null);
+            itemDto.setRequestId(i == 0 ? request.getId() : null);
+            ItemDto item = itemService.createItem(itemDto, owner.getId());
+            items.add(item);
+            BookingRequestDto bookingRequestDto = BookingTestData.getBookinReqDto();
+            bookingRequestDto.setItemId(item.getId());
+            bookings.add(bookingService.createBooking(booker.getId(), bookingRequestDto));
+        }
+        bookingService.updateBooking(owner.getId(), bookings.get(0).getId(), true);
+    }
+
+    @Test
+    void userEndpoints() throws Exception {
+        cold(2, () -> mockMvc.perform(get("/users"))
+                .andExpect(status().isOk()));
+        warm(2, () -> mockMvc.perform(get("/users"))
+                .andExpect(status().isOk()));
+        cold(2, () -> mockMvc.perform(get("/users/{id}", owner.getId()))
+                .andExpect(status().isOk()));
+        warm(2, () -> mockMvc.perform(get("/users/{id}", owner.getId()))
+                .andExpect(status().isOk()));
+        UserDto userDto = UserTestData.getUserDto();
+        userDto.setEmail("budget@email");
+        cold(1, () -> mockMvc.perform(post("/users")
+                        .content(objectMapper.writeValueAsString(userDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated()));
+    }
+
+    @Test
+    void itemEndpoints() throws Exception {
+        cold(7, () -> mockMvc.perform(get("/items")
+                        .header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk()));
+        warm(6, () -> mockMvc.perform(get("/items")
+                        .header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk()));
+        cold(7, () -> mockMvc.perform(get("/items/{itemId}", items.get(0).getId())
+                        .header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk()));
+        warm(3, () -> mockMvc.perform(get("/items/{itemId}", items.get(0).getId())
+                        .header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk()));
+        cold(1, () -> mockMvc.perform(get("/items/search")
+                        .param("text", "test")
+                        .header(USER_HEADER, booker.getId()))
+                .andExpect(status().isOk()));
+        cold(3, () -> mockMvc.perform(get("/items/{itemId}/availability", items.get(0).getId())
+                        .param("from", bookings.get(0).getStart().minusDays(1).toString())
+                        .param("to", bookings.get(0).getStart().plusDays(1).toString())
+                        .header(USER_HEADER, booker.getId()))
+                .andExpect(status().isOk()));
+        warm(1, () -> mockMvc.perform(get("/items/{itemId}/availability", items.get(0).getId())
+                        .param("from", bookings.get(0).getStart().minusDays(1).toString())
+                        .param("to", bookings.get(0).getStart().plusDays(1).toString())
+                        .header(USER_HEADER, booker.getId()))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void bookingEndpoints() throws Exception {
+        cold(2, () -> mockMvc.perform(get("/bookings")
+                        .header(USER_HEADER, booker.getId()))
+                .andExpect(status().isOk()));
+        warm(1, () -> mockMvc.perform(get("/bookings")
+                        .header(USER_HEADER, booker.getId()))
+                .andExpect(status().isOk()));
+        cold(2, () -> mockMvc.perform(get("/bookings/owner")
+                        .header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk()));
+        warm(1, () -> mockMvc.perform(get("/bookings/owner")
+                        .header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk()));
+        cold(3, () -> mockMvc.perform(get("/bookings/{bookingId}", bookings.get(1).getId())
+                        .header(USER_HEADER, booker.getId()))
+                .andExpect(status().isOk()));
+        warm(2, () -> mockMvc.perform(get("/bookings/{bookingId}", bookings.get(1).getId())
+                        .header(USER_HEADER, booker.getId()))
+                .andExpect(status().isOk()));
+        cold(8, () -> mockMvc.perform(patch("/bookings/{bookingId}", bookings.get(1).getId())
+                        .param("approved", "true")
+                        .header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk()));
+        BookingRequestDto bookingRequestDto = BookingTestData.getBookinReqDto();
+        bookingRequestDto.setItemId(items.get(2).getId());
+        bookingRequestDto.setStart(bookings.get(2).getEnd().plusMinutes(1));
+        bookingRequestDto.setEnd(bookings.get(2).getEnd().plusMinutes(5));
+        cold(4, () -> mockMvc.perform(post("/bookings")
+                        .content(objectMapper.writeValueAsString(bookingRequestDto))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(USER_HEADER, booker.getId()))
+                .andExpect(status().isCreated()));
+    }
+
+    @Test
+    void requestEndpoints() throws Exception {
+        cold(5, () -> mockMvc.perform(get("/requests")
+                        .header(USER_HEADER, booker.getId()))
+                .andExpect(status().isOk()));
+        warm(4, () -> mockMvc.perform(get("/requests")
+                        .header(USER_HEADER, booker.getId()))
+                .andExpect(status().isOk()));
+        cold(5, () -> mockMvc.perform(get("/requests/all")
+                        .header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk()));
+        warm(4, () -> mockMvc.perform(get("/requests/all")
+                        .header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk()));
+        String ownTag = mockMvc.perform(get("/requests")
+                        .header(USER_HEADER, booker.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        warm(2, () -> mockMvc.perform(get("/requests")
+                        .header(USER_HEADER, booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, ownTag))
+                .andExpect(status().isNotModified()));
+        String allTag = mockMvc.perform(get("/requests/all")
+                        .header(USER_HEADER, owner.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        warm(2, () -> mockMvc.perform(get("/requests/all")
+                        .header(USER_HEADER, owner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, allTag))
+                .andExpect(status().isNotModified()));
+        cold(5, () -> mockMvc.perform(get("/requests/{requestId}", request.getId())
+                        .header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk()));
+        warm(4, () -> mockMvc.perform(get("/requests/{requestId}", request.getId())
+                        .header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk()));
+    }
+
+    private ResultActions cold(long maxStatements, QueryBudget.Action action) throws Exception {
+        clearCaches();
+        return queryBudget.assertAtMost(maxStatements, action);
+    }
+
+    private ResultActions warm(long maxStatements, QueryBudget.Action action) throws Exception {
+        clearCaches();
+        action.perform();
+        return queryBudget.assertAtMost(maxStatements, action);
+    }
+
+    private void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.query;
+
+import org.springframework.test.web.servlet.ResultActions;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверка бюджета SQL-запросов на один вызов эндпоинта.
+ * Перед вызовом контекст персистентности сбрасывается и очищается, чтобы сущности, созданные
+ * при подготовке данных, не экономили запросы; после вызова сбрасывается ещё раз, чтобы учесть
+ * отложенные INSERT/UPDATE.
+ */
+public class QueryBudget {
+
+    public static final String STATEMENT_INSPECTOR = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+            + "ru.practicum.shareit.query.StatementCounter";
+
+    private final EntityManager entityManager;
+
+    public QueryBudget(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public interface Action {
+        ResultActions perform() throws Exception;
+    }
+
+    public ResultActions assertAtMost(long maxStatements, Action action) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        StatementCounter.reset();
+        ResultActions result = action.perform();
+        entityManager.flush();
+        long count = StatementCounter.count();
+        assertTrue(count <= maxStatements,
+                () -> "Expected at most " + maxStatements + " SQL statements, but was " + count);
+        return result;
+    }
+}
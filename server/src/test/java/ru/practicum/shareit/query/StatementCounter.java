@@ -0,0 +1,27 @@
+package ru.practicum.shareit.query;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Счётчик SQL-запросов текущего потока. Подключается к Hibernate свойством
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}, фоновые задачи
+ * в других потоках (например, сдвиг бронирований по расписанию) в счёт не попадают.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static long count() {
+        return COUNT.get()[0];
+    }
+}
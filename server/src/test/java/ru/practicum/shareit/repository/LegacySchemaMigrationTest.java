@@ -0,0 +1,53 @@
+package ru.practicum.shareit.repository;
+
+import org.flywaydb.core.Flyway;
+import org.h2.Driver;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Миграции поверх базы, созданной старым schema.sql до перехода на Flyway
+ */
+class LegacySchemaMigrationTest {
+
+    @Test
+    void migratesDatabaseCreatedByOldSchemaScript() {
+        DataSource dataSource = new SimpleDriverDataSource(new Driver(),
+                "jdbc:h2:mem:legacy;DB_CLOSE_DELAY=-1", "test", "test");
+        new ResourceDatabasePopulator(new ClassPathResource("db/legacy/schema.sql")).execute(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('owner', 'owner@mail.ru'), ('booker', 'booker@mail.ru')");
+        jdbcTemplate.update("INSERT INTO requests (description, requestor_id, created) VALUES ('drill', 2, CURRENT_DATE)");
+        jdbcTemplate.update("INSERT INTO items (name, description, is_available, owner_id, request_id) " +
+                "VALUES ('Drill', 'Simple drill', true, 1, 1)");
+        jdbcTemplate.update("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) " +
+                "VALUES (DATEADD('DAY', -2, LOCALTIMESTAMP), DATEADD('DAY', -1, LOCALTIMESTAMP), 1, 2, 'APPROVED')");
+        jdbcTemplate.update("INSERT INTO comments (text, item_id, author_id, created) VALUES ('Good', 1, 2, LOCALTIMESTAMP)");
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .baselineOnMigrate(true)
+                .load()
+                .migrate();
+
+        for (String table : new String[]{"users", "requests", "items", "bookings", "comments"}) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            Long hiValue = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + table + "_seq", Long.class);
+            // пул Hibernate выдаёт id из (hiValue - allocationSize, hiValue]
+            assertTrue(hiValue - 50 >= maxId, table);
+            assertEquals("NO", jdbcTemplate.queryForObject("SELECT IS_IDENTITY FROM INFORMATION_SCHEMA.COLUMNS " +
+                    "WHERE TABLE_NAME = ? AND COLUMN_NAME = 'ID'", String.class, table.toUpperCase()), table);
+        }
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT last_booking_id FROM items WHERE id = 1", Long.class));
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT version FROM items WHERE id = 1", Long.class));
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Планы запросов горячих путей на схеме из миграций: ни один не должен читать таблицу целиком
+ */
+@DataJpaTest
+class QueryPlanTest {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bookingsByBookerUseIndex() {
+        assertIndexScan("SELECT * FROM bookings WHERE booker_id = 1 ORDER BY start_date DESC LIMIT 10");
+        assertIndexScan("SELECT * FROM bookings WHERE booker_id = 1 AND status = 'WAITING' ORDER BY start_date DESC LIMIT 10");
+        assertIndexScan("SELECT * FROM bookings WHERE booker_id = 1 AND end_date < CURRENT_TIMESTAMP ORDER BY start_date DESC");
+    }
+
+    @Test
+    void bookingsByItemUseItemStatusIndex() {
+        String plan = assertIndexScan("SELECT * FROM bookings WHERE item_id = 1 AND status = 'APPROVED' " +
+                "AND start_date < CURRENT_TIMESTAMP ORDER BY start_date DESC LIMIT 1");
+        assertTrue(plan.toUpperCase().contains("BOOKINGS_ITEM_ID_STATUS_START_DATE_IDX"), plan);
+        assertIndexScan("SELECT 1 FROM bookings WHERE item_id = 1 AND status IN ('WAITING', 'APPROVED') " +
+                "AND start_date < CURRENT_TIMESTAMP AND end_date > CURRENT_TIMESTAMP");
+    }
+
+    @Test
+    void itemsByOwnerUseIndex() {
+        assertIndexScan("SELECT * FROM items WHERE owner_id = 1 ORDER BY id LIMIT 10");
+        assertIndexScan("SELECT * FROM items WHERE owner_id = 1 AND id > 10 ORDER BY id LIMIT 10");
+        assertIndexScan("SELECT b.* FROM bookings b JOIN items it ON it.id = b.item_id WHERE it.owner_id = 1");
+    }
+
+    @Test
+    void requestsAndCommentsUseIndex() {
+        assertIndexScan("SELECT * FROM items WHERE request_id = 1");
+        assertIndexScan("SELECT * FROM comments WHERE item_id IN (1, 2, 3)");
+        assertIndexScan("SELECT * FROM requests WHERE requestor_id = 1 ORDER BY created DESC");
+    }
+
+    private String assertIndexScan(String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        assertFalse(plan.contains("tableScan"), plan);
+        return plan;
+    }
+}
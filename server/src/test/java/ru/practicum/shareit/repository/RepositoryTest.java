@@ -6,6 +6,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.comment.model.Comment;
@@ -58,8 +59,11 @@ class RepositoryTest {
         booking = bookingRepository.save(booking);
         Sort sortId = Sort.by("id").ascending();
         Pageable sortedById = PageRequest.of(0, 1, sortId);
-        List<Booking> bookings = bookingRepository.findAllCurrent(user.getId(), sortedById);
-        assertEquals(List.of(booking), bookings);
+        List<BookingDto> bookings = bookingRepository.findAllCurrent(user.getId(), sortedById);
+        assertEquals(1, bookings.size());
+        assertEquals((long) booking.getId(), bookings.get(0).getId());
+        assertEquals(item.getName(), bookings.get(0).getItem().getName());
+        assertEquals(user.getEmail(), bookings.get(0).getBooker().getEmail());
     }
 
     @Test
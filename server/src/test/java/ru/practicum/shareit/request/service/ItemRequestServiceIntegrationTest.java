@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -22,10 +24,13 @@ import ru.practicum.shareit.request.dto.RequestInfoDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 @Transactional
@@ -41,6 +46,8 @@ class ItemRequestServiceIntegrationTest {
     private ItemRequestService itemRequestService;
     @Autowired
     private ItemService itemService;
+    @Autowired
+    private EntityManager entityManager;
 
 
     @Test
@@ -108,6 +115,31 @@ class ItemRequestServiceIntegrationTest {
         assertEquals(itemRequestDto.getDescription(), list.get(0).getDescription());
     }
 
+    @Test
+    void requestListTagsTrackRequestsAndItems() {
+        UserDto user = userService.createUser(UserTestData.getUserDto());
+        UserDto owner = userService.createUser(UserTestData.getUserDtoOwner());
+        String ownTag = itemRequestService.getOwnRequestsTag(user.getId());
+        String allTag = itemRequestService.getAllRequestsTag(owner.getId());
+
+        ItemRequestDto itemRequestDto = itemRequestService.createRequest(user.getId(),
+                ItemRequestTestData.getItemReqDto());
+        entityManager.flush();
+        String ownTagWithRequest = itemRequestService.getOwnRequestsTag(user.getId());
+        String allTagWithRequest = itemRequestService.getAllRequestsTag(owner.getId());
+        assertNotEquals(ownTag, ownTagWithRequest);
+        assertNotEquals(allTag, allTagWithRequest);
+        assertEquals(ownTagWithRequest, itemRequestService.getOwnRequestsTag(user.getId()));
+
+        ItemDto itemDto = ItemTestData.getItemDto();
+        itemDto.setRequestId(itemRequestDto.getId());
+        itemService.createItem(itemDto, owner.getId());
+        entityManager.flush();
+
+        assertNotEquals(ownTagWithRequest, itemRequestService.getOwnRequestsTag(user.getId()));
+        assertNotEquals(allTagWithRequest, itemRequestService.getAllRequestsTag(owner.getId()));
+    }
+
     @Test
     void getItemRequestById() {
         UserDto user = userService.createUser(UserTestData.getUserDto());
@@ -117,4 +149,41 @@ class ItemRequestServiceIntegrationTest {
 
         assertEquals(itemRequestDto.getId(), result.getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllRequestsStatementCountDoesNotDependOnPageSize() {
+        UserDto user = userService.createUser(UserTestData.getUserDto());
+        UserDto user1 = userService.createUser(UserTestData.getUserDtoOwner());
+        for (int i = 0; i < 5; i++) {
+            ItemRequestDto newRequest = ItemRequestTestData.getItemReqDto();
+            newRequest.setId(0);
+            ItemRequestDto itemRequestDto = itemRequestService.createRequest(user.getId(), newRequest);
+            ItemDto itemDto = ItemTestData.getItemDto();
+            itemDto.setId(null);
+            itemDto.setRequestId(itemRequestDto.getId());
+            itemService.createItem(itemDto, user1.getId());
+        }
+        itemRequestService.getAllRequests(user1.getId(), 0, 1);
+
+        long onePage = countStatements(() -> itemRequestService.getAllRequests(user1.getId(), 0, 1));
+        long fivePage = countStatements(() -> itemRequestService.getAllRequests(user1.getId(), 0, 5));
+        long forOwner = countStatements(() -> itemRequestService.getAllRequestsForOwner(user.getId()));
+
+        assertTrue(onePage > 0);
+        assertEquals(onePage, fivePage);
+        assertEquals(onePage, forOwner);
+        List<RequestInfoDto> list = itemRequestService.getAllRequests(user1.getId(), 0, 5);
+        assertEquals(5, list.size());
+        list.forEach(request -> assertEquals(1, request.getItems().size()));
+    }
+
+    private long countStatements(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request.service;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -20,6 +21,7 @@ import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
 import java.util.List;
 import java.util.Optional;
@@ -28,6 +30,9 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ItemRequestServiceTest {
@@ -40,7 +45,8 @@ class ItemRequestServiceTest {
 
     private ItemMapper itemMapper = mock(ItemMapper.class);
 
-    private ItemRequestService itemRequestService = new ItemRequestService(requestRepository, userRepository,
+    private ItemRequestService itemRequestService = new ItemRequestService(requestRepository,
+            new UserCache(new ConcurrentMapCacheManager(), userRepository),
             requestMapper, itemRepository, itemMapper);
 
     @Test
@@ -82,7 +88,7 @@ class ItemRequestServiceTest {
         when(userRepository.findById(any())).thenReturn(Optional.of(user));
         when(requestRepository.findAllByRequestId(anyLong(), any())).thenReturn(List.of(itemRequest));
         when(requestMapper.toListInfoDto(any())).thenReturn(List.of(itemRequestDto));
-        when(itemRepository.findAllByRequestId(any())).thenReturn(items);
+        when(itemRepository.findAllByRequestIdIn(any())).thenReturn(items);
         when(itemMapper.toListDto(any())).thenReturn(List.of(ItemTestData.getItemDto()));
 
         List<RequestInfoDto> result = itemRequestService.getAllRequestsForOwner(user.getId());
@@ -119,7 +125,7 @@ class ItemRequestServiceTest {
                 .thenReturn(List.of(ItemRequestTestData.getItemReq()));
         when(requestMapper.toInfoDto(any())).thenReturn(itemRequestDto);
         when(requestMapper.toListInfoDto(any())).thenReturn(List.of(itemRequestDto));
-        when(itemRepository.findAllByRequestId(any())).thenReturn(items);
+        when(itemRepository.findAllByRequestIdIn(any())).thenReturn(items);
         when(itemMapper.toListDto(any())).thenReturn(List.of(ItemTestData.getItemDto()));
 
         List<RequestInfoDto> result = itemRequestService.getAllRequests(user.getId(), from, size);
@@ -140,7 +146,7 @@ class ItemRequestServiceTest {
                 .thenReturn(null);
         when(requestMapper.toInfoDto(any())).thenReturn(null);
         when(requestMapper.toListInfoDto(any())).thenReturn(List.of());
-        when(itemRepository.findAllByRequestId(any())).thenReturn(items);
+        when(itemRepository.findAllByRequestIdIn(any())).thenReturn(items);
         when(itemMapper.toListDto(any())).thenReturn(List.of(ItemTestData.getItemDto()));
 
         List<RequestInfoDto> result = itemRequestService.getAllRequests(user.getId(), from, size);
@@ -148,6 +154,29 @@ class ItemRequestServiceTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void getAllRequestsLoadsItemsWithOneQuery() {
+        User user = UserTestData.getOwner();
+        RequestInfoDto answered = ItemRequestTestData.getItemReqInfoDto();
+        RequestInfoDto unanswered = new RequestInfoDto();
+        unanswered.setId(2);
+        Item item = ItemTestData.getItem();
+
+        when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        when(requestRepository.findByRequestIdNot(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(ItemRequestTestData.getItemReq()));
+        when(requestMapper.toListInfoDto(any())).thenReturn(List.of(answered, unanswered));
+        when(itemRepository.findAllByRequestIdIn(any())).thenReturn(List.of(item));
+        when(itemMapper.toListDto(List.of(item))).thenReturn(List.of(ItemTestData.getItemDto()));
+
+        List<RequestInfoDto> result = itemRequestService.getAllRequests(user.getId(), 0, 2);
+
+        assertEquals(2, result.get(0).getItems().size());
+        assertTrue(result.get(1).getItems().isEmpty());
+        verify(itemRepository, times(1)).findAllByRequestIdIn(List.of(1L, 2L));
+        verify(itemRepository, never()).findAllByRequestId(any());
+    }
+
     @Test
     void getItemRequestByIdWhenRequestFound() {
         User user = UserTestData.getOwner();
@@ -5,11 +5,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.data.UserTestData;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 @Transactional
@@ -20,6 +22,9 @@ public class UserServiceIntegrationTest {
     @Autowired
     UserService userService;
 
+    @Autowired
+    UserCache userCache;
+
     @Test
     void createUser() {
         UserDto userDto = userService.createUser(UserTestData.getUserDto());
@@ -42,4 +47,34 @@ public class UserServiceIntegrationTest {
         UserDto userDto1 = userService.updateUser(userDto.getId(), userDtoUpd);
         assertEquals(userDtoUpd.getName(), userDto1.getName());
     }
+
+    /**
+     * Без общей транзакции: запись кэша сбрасывается только после фиксации изменений
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void updateUserRefreshesCacheAndCachedUserIsCopied() {
+        UserDto userDto = userService.createUser(UserTestData.getUserDto());
+        userCache.findById(userDto.getId()).orElseThrow().setName("Changed");
+        assertEquals(userDto.getName(), userCache.findById(userDto.getId()).orElseThrow().getName());
+
+        UserDto userDtoUpd = new UserDto();
+        userDtoUpd.setName("Update");
+        userService.updateUser(userDto.getId(), userDtoUpd);
+
+        assertEquals("Update", userCache.findById(userDto.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void deleteUserEvictsCache() {
+        UserDto userDto = userService.createUser(UserTestData.getUserDto());
+        assertTrue(userCache.findById(userDto.getId()).isPresent());
+
+        userService.deleteUserById(userDto.getId());
+
+        assertTrue(userCache.findById(userDto.getId()).isEmpty());
+    }
 }
@@ -1,8 +1,13 @@
 package ru.practicum.shareit.user.service;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.comment.repository.CommentRepository;
 import ru.practicum.shareit.data.UserTestData;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.service.ItemChangedEvent;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -10,6 +15,7 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -22,7 +28,11 @@ class UserServiceTest {
     private UserRepository userRepository = mock(UserRepository.class);
     private UserMapper userMapper = mock(UserMapper.class);
 
-    private UserService userService = new UserService(userRepository, userMapper);
+    private CommentRepository commentRepository = mock(CommentRepository.class);
+    private ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private UserService userService = new UserService(userRepository, userMapper,
+            new UserCache(new ConcurrentMapCacheManager(), userRepository), commentRepository, eventPublisher);
 
     @Test
     void createUserTest() {
@@ -80,6 +90,25 @@ class UserServiceTest {
         assertEquals(userDto, result);
     }
 
+    @Test
+    void updateUserNamePublishesCommentedItemsTest() {
+        User user = UserTestData.getUser();
+        UserDto userDto = new UserDto();
+        userDto.setName("renamed");
+
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userRepository.save(any())).thenReturn(user);
+        when(commentRepository.findItemIdsByAuthorId(user.getId())).thenReturn(List.of(3L, 5L));
+
+        userService.updateUser(user.getId(), userDto);
+
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(List.of(3L, 5L), events.getAllValues().stream()
+                .map(event -> ((ItemChangedEvent) event).getItemId())
+                .collect(Collectors.toList()));
+    }
+
     @Test
     void updateUserTestError() {
         User user = UserTestData.getUser();